@@ -0,0 +1,165 @@
+package org.reminstant.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that runs at most maxInFlight tasks of the delegate at once, so fan-outs of many tasks
+ * (e.g. to a virtual thread per task executor) keep a steady footprint. Tasks over the limit either block
+ * the submitter until a slot is free or wait in a queue without a thread; tasks submitted from a running
+ * task are always queued, since blocking there could take the last slot and deadlock chains.
+ * <p>
+ * The delegate is owned by this executor: it is shut down once the executor is shut down
+ * and no accepted task is left to be handed to the delegate.
+ */
+public final class BoundedExecutor extends AbstractExecutorService {
+
+  private static final ThreadLocal<BoundedExecutor> CURRENT_EXECUTOR = new ThreadLocal<>();
+
+  private final ExecutorService delegate;
+  private final Semaphore permits;
+  private final boolean isSubmitterBlocked;
+  private final Queue<Runnable> pendingTasks;
+  // accepted tasks which are not handed to the delegate yet
+  private final AtomicInteger undelegatedCount;
+  private volatile boolean isShutdown;
+
+
+  private BoundedExecutor(ExecutorService delegate, int maxInFlight, boolean isSubmitterBlocked) {
+    if (maxInFlight <= 0) {
+      throw new IllegalArgumentException("maxInFlight must be positive");
+    }
+    this.delegate = Objects.requireNonNull(delegate);
+    this.permits = new Semaphore(maxInFlight);
+    this.isSubmitterBlocked = isSubmitterBlocked;
+    this.pendingTasks = new ConcurrentLinkedQueue<>();
+    this.undelegatedCount = new AtomicInteger();
+    this.isShutdown = false;
+  }
+
+  /** Submitters wait for a free slot, task submission may throw RejectedExecutionException on interruption */
+  public static BoundedExecutor blocking(ExecutorService delegate, int maxInFlight) {
+    return new BoundedExecutor(delegate, maxInFlight, true);
+  }
+
+  /** Submission never blocks, tasks over the limit are started as running ones finish */
+  public static BoundedExecutor queueing(ExecutorService delegate, int maxInFlight) {
+    return new BoundedExecutor(delegate, maxInFlight, false);
+  }
+
+
+  @Override
+  public void execute(Runnable command) {
+    Objects.requireNonNull(command);
+    undelegatedCount.incrementAndGet();
+    if (isShutdown) {
+      releaseUndelegated();
+      throw new RejectedExecutionException("Executor is shut down");
+    }
+
+    if (isSubmitterBlocked && CURRENT_EXECUTOR.get() != this) {
+      try {
+        permits.acquire();
+      } catch (InterruptedException _) {
+        Thread.currentThread().interrupt();
+        releaseUndelegated();
+        throw new RejectedExecutionException("Interrupted while waiting for a free slot");
+      }
+      delegate(command);
+      return;
+    }
+
+    pendingTasks.add(command);
+    startPendingTasks();
+  }
+
+  public int getPendingTaskCount() {
+    return pendingTasks.size();
+  }
+
+  @Override
+  public void shutdown() {
+    isShutdown = true;
+    tryTerminate();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    isShutdown = true;
+    List<Runnable> notStartedTasks = new ArrayList<>();
+    Runnable task;
+    while ((task = pendingTasks.poll()) != null) {
+      notStartedTasks.add(task);
+      undelegatedCount.decrementAndGet();
+    }
+    notStartedTasks.addAll(delegate.shutdownNow());
+    return notStartedTasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return isShutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return isShutdown && undelegatedCount.get() == 0 && delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return delegate.awaitTermination(timeout, unit);
+  }
+
+
+
+  // Each taken permit is either handed to a task or returned, so a queued task can't be left behind
+  private void startPendingTasks() {
+    while (!pendingTasks.isEmpty() && permits.tryAcquire()) {
+      Runnable task = pendingTasks.poll();
+      if (task == null) {
+        permits.release();
+      } else {
+        delegate(task);
+      }
+    }
+  }
+
+  // Called with a taken permit
+  private void delegate(Runnable command) {
+    try {
+      delegate.execute(() -> {
+        BoundedExecutor outerExecutor = CURRENT_EXECUTOR.get();
+        CURRENT_EXECUTOR.set(this);
+        try {
+          command.run();
+        } finally {
+          CURRENT_EXECUTOR.set(outerExecutor);
+          permits.release();
+          startPendingTasks();
+        }
+      });
+    } catch (RejectedExecutionException ex) {
+      permits.release();
+      throw ex;
+    } finally {
+      releaseUndelegated();
+    }
+  }
+
+  private void releaseUndelegated() {
+    if (undelegatedCount.decrementAndGet() == 0) {
+      tryTerminate();
+    }
+  }
+
+  private void tryTerminate() {
+    if (isShutdown && undelegatedCount.get() == 0) {
+      delegate.shutdown();
+    }
+  }
+}
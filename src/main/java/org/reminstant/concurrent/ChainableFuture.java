@@ -2,20 +2,24 @@ package org.reminstant.concurrent;
 
 import org.reminstant.concurrent.functions.*;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.*;
 
 public class ChainableFuture<V> implements Future<V> {
 
   private static final ExecutorService DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
-  private static final ChainableFuture<Void> COMPLETED_VOID_INSTANCE =
-      new ChainableFuture<>(DEFAULT_EXECUTOR, () -> null, true);
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+  private static final ChainableFuture<Void> COMPLETED_VOID_INSTANCE = newCompletedVoid();
 
   private final ExecutorService executor;
 
-  private final Future<V> currentTask;
+  private final Task<V> currentTask;
   private final boolean isStrong;
   private final Set<ChainableFuture<?>> parentTasks;
   private final AtomicInteger childrenCount;
@@ -36,28 +40,28 @@ public class ChainableFuture<V> implements Future<V> {
   }
 
   public static ChainableFuture<Void> runWeaklyAsync(ThrowingRunnable runnable, ExecutorService executor) {
-    return supplyStronglyAsync(ThrowingFunctions.toSupplier(runnable), executor);
+    return supplyWeaklyAsync(ThrowingFunctions.toSupplier(runnable), executor);
   }
 
   public static ChainableFuture<Void> runStronglyAsync(ThrowingRunnable runnable, ExecutorService executor) {
-    return supplyWeaklyAsync(ThrowingFunctions.toSupplier(runnable), executor);
+    return supplyStronglyAsync(ThrowingFunctions.toSupplier(runnable), executor);
   }
 
 
   public static <V> ChainableFuture<V> supplyStronglyAsync(ThrowingSupplier<V> supplier) {
-    return new ChainableFuture<>(DEFAULT_EXECUTOR, supplier, true);
+    return new ChainableFuture<>(DEFAULT_EXECUTOR, supplier, true).start();
   }
 
   public static <V> ChainableFuture<V> supplyWeaklyAsync(ThrowingSupplier<V> supplier) {
-    return new ChainableFuture<>(DEFAULT_EXECUTOR, supplier, false);
+    return new ChainableFuture<>(DEFAULT_EXECUTOR, supplier, false).start();
   }
 
   public static <V> ChainableFuture<V> supplyStronglyAsync(ThrowingSupplier<V> supplier, ExecutorService executor) {
-    return new ChainableFuture<>(executor, supplier, true);
+    return new ChainableFuture<>(executor, supplier, true).start();
   }
 
   public static <V> ChainableFuture<V> supplyWeaklyAsync(ThrowingSupplier<V> supplier, ExecutorService executor) {
-    return new ChainableFuture<>(executor, supplier, false);
+    return new ChainableFuture<>(executor, supplier, false).start();
   }
 
 
@@ -80,15 +84,135 @@ public class ChainableFuture<V> implements Future<V> {
   }
 
 
+  // Results are in the order of futures, the first failure fails the collector and cancels weak siblings
+  public static <V> ChainableFuture<List<V>> collectStronglyAsync(Iterable<ChainableFuture<V>> futures) {
+    return collectAsync(futures, true, DEFAULT_EXECUTOR, true);
+  }
+
+  public static <V> ChainableFuture<List<V>> collectWeaklyAsync(Iterable<ChainableFuture<V>> futures) {
+    return collectAsync(futures, false, DEFAULT_EXECUTOR, true);
+  }
+
+  public static <V> ChainableFuture<List<V>> collectStronglyAsync(Iterable<ChainableFuture<V>> futures,
+                                                                  ExecutorService executor) {
+    return collectAsync(futures, true, executor, true);
+  }
+
+  public static <V> ChainableFuture<List<V>> collectWeaklyAsync(Iterable<ChainableFuture<V>> futures,
+                                                                ExecutorService executor) {
+    return collectAsync(futures, false, executor, true);
+  }
+
+
+  // Result or failure of the first completed future, weak losers are cancelled
+  public static <V> ChainableFuture<V> anyOfStronglyAsync(Iterable<ChainableFuture<V>> futures) {
+    return anyOfAsync(futures, true, DEFAULT_EXECUTOR, false);
+  }
+
+  public static <V> ChainableFuture<V> anyOfWeaklyAsync(Iterable<ChainableFuture<V>> futures) {
+    return anyOfAsync(futures, false, DEFAULT_EXECUTOR, false);
+  }
+
+  public static <V> ChainableFuture<V> anyOfStronglyAsync(Iterable<ChainableFuture<V>> futures,
+                                                          ExecutorService executor) {
+    return anyOfAsync(futures, true, executor, false);
+  }
+
+  public static <V> ChainableFuture<V> anyOfWeaklyAsync(Iterable<ChainableFuture<V>> futures,
+                                                        ExecutorService executor) {
+    return anyOfAsync(futures, false, executor, false);
+  }
+
+
+  // Result of the first successful future, weak losers are cancelled; fails only if all futures fail
+  public static <V> ChainableFuture<V> firstSuccessfulStronglyAsync(Iterable<ChainableFuture<V>> futures) {
+    return anyOfAsync(futures, true, DEFAULT_EXECUTOR, true);
+  }
+
+  public static <V> ChainableFuture<V> firstSuccessfulWeaklyAsync(Iterable<ChainableFuture<V>> futures) {
+    return anyOfAsync(futures, false, DEFAULT_EXECUTOR, true);
+  }
+
+  public static <V> ChainableFuture<V> firstSuccessfulStronglyAsync(Iterable<ChainableFuture<V>> futures,
+                                                                    ExecutorService executor) {
+    return anyOfAsync(futures, true, executor, true);
+  }
+
+  public static <V> ChainableFuture<V> firstSuccessfulWeaklyAsync(Iterable<ChainableFuture<V>> futures,
+                                                                  ExecutorService executor) {
+    return anyOfAsync(futures, false, executor, true);
+  }
+
+
+  // Body is called for consecutive chunks [from, to) of up to chunkSize indices, see ParallelLoop
+  public static ChainableFuture<Void> parallelFor(long startInclusive, long endExclusive, int chunkSize,
+                                                  ThrowingRangeConsumer body) {
+    return parallelFor(startInclusive, endExclusive, chunkSize, body, DEFAULT_EXECUTOR);
+  }
+
+  public static ChainableFuture<Void> parallelFor(long startInclusive, long endExclusive, int chunkSize,
+                                                  ThrowingRangeConsumer body, ExecutorService executor) {
+    ThrowingRangeFunction<Void> mapping = (from, to) -> {
+      body.accept(from, to);
+      return null;
+    };
+    return new ParallelLoop<>(startInclusive, endExclusive, chunkSize, null, mapping, null, executor).start();
+  }
+
+  // Chunk results are combined in chunk order, starting with identity, so combiner needs associativity only
+  public static <R> ChainableFuture<R> parallelReduce(long startInclusive, long endExclusive, int chunkSize,
+                                                      R identity, ThrowingRangeFunction<R> mapping,
+                                                      BinaryOperator<R> combiner) {
+    return parallelReduce(startInclusive, endExclusive, chunkSize, identity, mapping, combiner, DEFAULT_EXECUTOR);
+  }
+
+  public static <R> ChainableFuture<R> parallelReduce(long startInclusive, long endExclusive, int chunkSize,
+                                                      R identity, ThrowingRangeFunction<R> mapping,
+                                                      BinaryOperator<R> combiner, ExecutorService executor) {
+    Objects.requireNonNull(combiner);
+    return new ParallelLoop<>(startInclusive, endExclusive, chunkSize, identity, mapping, combiner, executor)
+        .start();
+  }
+
 
+  // Supplier is called again after a policy delay while it throws retryable exceptions and attempts are left;
+  // the last exception fails the future, cancellation of it interrupts the running attempt
+  public static <V> ChainableFuture<V> retryStronglyAsync(ThrowingSupplier<V> supplier, RetryPolicy policy) {
+    return new RetryRun<>(supplier, policy, true, DEFAULT_EXECUTOR).start();
+  }
+
+  public static <V> ChainableFuture<V> retryWeaklyAsync(ThrowingSupplier<V> supplier, RetryPolicy policy) {
+    return new RetryRun<>(supplier, policy, false, DEFAULT_EXECUTOR).start();
+  }
+
+  public static <V> ChainableFuture<V> retryStronglyAsync(ThrowingSupplier<V> supplier, RetryPolicy policy,
+                                                          ExecutorService executor) {
+    return new RetryRun<>(supplier, policy, true, executor).start();
+  }
+
+  public static <V> ChainableFuture<V> retryWeaklyAsync(ThrowingSupplier<V> supplier, RetryPolicy policy,
+                                                        ExecutorService executor) {
+    return new RetryRun<>(supplier, policy, false, executor).start();
+  }
+
+
+
+  // Task is not scheduled until start() is called
   private ChainableFuture(ExecutorService executor, ThrowingSupplier<V> supplier, boolean isStrong) {
     this.executor = executor;
-    this.currentTask = executor.submit(supplier::get);
+    this.currentTask = new Task<>(supplier::get);
     this.isStrong = isStrong;
     this.parentTasks = Collections.newSetFromMap(new ConcurrentHashMap<>());
     this.childrenCount = new AtomicInteger(0);
   }
 
+  // Task is never run, it is completed by callbacks of other futures
+  private ChainableFuture(ExecutorService executor, boolean isStrong) {
+    this(executor, () -> {
+      throw new IllegalStateException("Task must be completed by callbacks");
+    }, isStrong);
+  }
+
 
 
   public <U> ChainableFuture<U> thenStronglyMapAsync(ThrowingFunction<? super V, U> mapping) {
@@ -157,6 +281,18 @@ public class ChainableFuture<V> implements Future<V> {
     return thenComposeAsync(function, false, executor);
   }
 
+  // Child has the result of this future or fails with TimeoutException if it isn't done in time,
+  // then weak parents without other children are cancelled. Child is as strong as this future
+  public ChainableFuture<V> orTimeout(Duration timeout) {
+    TimeoutException timeoutEx = new TimeoutException("Future has not completed in " + timeout);
+    return thenTimeoutAsync(timeout, childTask -> childTask.currentTask.fail(timeoutEx));
+  }
+
+  // Same, but the child gets the value on timeout
+  public ChainableFuture<V> completeOnTimeout(V value, Duration timeout) {
+    return thenTimeoutAsync(timeout, childTask -> childTask.currentTask.complete(value));
+  }
+
 
 
   @Override
@@ -241,22 +377,22 @@ public class ChainableFuture<V> implements Future<V> {
 
   private static <V> ChainableFuture<Void> awaitAllAsync(Iterable<ChainableFuture<V>> futures,
                                                          boolean isStrong, ExecutorService executor) {
-    ThrowingSupplier<Void> supplier = () -> {
-      for (ChainableFuture<V> future : futures) {
-        try {
-          future.get();
-        } catch (InterruptedException _) {
-          throw new InterruptedException();
-        } catch (Exception _) { } // NOSONAR
+    ChainableFuture<Void> childTask = new ChainableFuture<>(executor, isStrong);
+    // Extra count is released after registration, so the task can't complete halfway through it
+    AtomicInteger pendingCount = new AtomicInteger(1);
+    Runnable countDown = () -> {
+      if (pendingCount.decrementAndGet() == 0) {
+        childTask.currentTask.complete(null);
       }
-      return null;
     };
 
-    ChainableFuture<Void> childTask = new ChainableFuture<>(executor, supplier, isStrong);
     for (ChainableFuture<V> future : futures) {
       childTask.parentTasks.add(future);
       future.childrenCount.incrementAndGet();
+      pendingCount.incrementAndGet();
+      future.currentTask.onCompletion(countDown);
     }
+    countDown.run();
 
     return childTask;
   }
@@ -264,41 +400,80 @@ public class ChainableFuture<V> implements Future<V> {
   private static <V> ChainableFuture<List<V>> collectAsync(Iterable<ChainableFuture<V>> futures,
                                                            boolean isStrong, ExecutorService executor,
                                                            boolean mayInterruptIfRunning) {
-    ThrowingSupplier<List<V>> supplier = () -> {
-      try {
-        List<V> result = new ArrayList<>();
-        for (ChainableFuture<V> future : futures) {
-          result.add(future.get());
+    ChainableFuture<List<V>> childTask = new ChainableFuture<>(executor, isStrong);
+    List<ChainableFuture<V>> parents = childTask.addParents(futures);
+
+    AtomicInteger pendingCount = new AtomicInteger(parents.size() + 1);
+    AtomicBoolean isFailed = new AtomicBoolean(false);
+    Consumer<ChainableFuture<V>> countDown = future -> {
+      if (future != null && future.isFailedOrCancelled()) {
+        // Only the first failure completes the task and cancels the rest
+        if (isFailed.compareAndSet(false, true)) {
+          // Siblings are cancelled before the failure is visible to waiters
+          childTask.sendCancellationNotifications(mayInterruptIfRunning);
+          childTask.currentTask.fail(future.toChainException());
         }
-        return result;
-      } catch (ExecutionException ex) {
-        cancelParents(futures, mayInterruptIfRunning);
-        throw new ChainExecutionException(ex);
-      } catch (CancellationException ex) { // NOSONAR
-        cancelParents(futures, mayInterruptIfRunning);
-        throw new ChainExecutionException(ex);
+      } else if (pendingCount.decrementAndGet() == 0) {
+        List<V> result = new ArrayList<>(parents.size());
+        for (ChainableFuture<V> parent : parents) {
+          result.add(parent.currentTask.resultNow());
+        }
+        childTask.currentTask.complete(result);
       }
     };
 
-    ChainableFuture<List<V>> childTask = new ChainableFuture<>(executor, supplier, isStrong);
-    for (ChainableFuture<V> future : futures) {
-      childTask.parentTasks.add(future);
-      future.childrenCount.incrementAndGet();
+    // Parents are linked before any callback, so an early failure notifies all of them
+    for (ChainableFuture<V> future : parents) {
+      future.currentTask.onCompletion(() -> countDown.accept(future));
+    }
+    countDown.accept(null);
+
+    return childTask;
+  }
+
+  private static <V> ChainableFuture<V> anyOfAsync(Iterable<ChainableFuture<V>> futures,
+                                                   boolean isStrong, ExecutorService executor,
+                                                   boolean isSuccessRequired) {
+    ChainableFuture<V> childTask = new ChainableFuture<>(executor, isStrong);
+    List<ChainableFuture<V>> parents = childTask.addParents(futures);
+    if (parents.isEmpty()) {
+      throw new IllegalArgumentException("At least one future is required");
+    }
+
+    AtomicInteger pendingCount = new AtomicInteger(parents.size());
+    AtomicBoolean isSettled = new AtomicBoolean(false);
+    for (ChainableFuture<V> future : parents) {
+      future.currentTask.onCompletion(() -> {
+        boolean isLast = pendingCount.decrementAndGet() == 0;
+        // Without success required any completion wins, otherwise the last failure does if nothing succeeded
+        if (isSuccessRequired && !isLast && future.isFailedOrCancelled()) {
+          return;
+        }
+        if (isSettled.compareAndSet(false, true)) {
+          childTask.sendCancellationNotifications(true);
+          childTask.completeFrom(future.currentTask);
+        }
+      });
     }
 
     return childTask;
   }
 
-  private static <V> void cancelParents(Iterable<ChainableFuture<V>> parents, boolean mayInterruptIfRunning) {
-    for (ChainableFuture<V> parent : parents) {
-      parent.handleCancellationNotification(mayInterruptIfRunning);
+  private <U> List<ChainableFuture<U>> addParents(Iterable<ChainableFuture<U>> futures) {
+    List<ChainableFuture<U>> parents = new ArrayList<>();
+    for (ChainableFuture<U> future : futures) {
+      parents.add(future);
+      parentTasks.add(future);
+      future.childrenCount.incrementAndGet();
     }
+    return parents;
   }
 
 
 
   private <U> ChainableFuture<U> thenMapAsync(ThrowingFunction<? super V, U> mapping,
                                               boolean isStrong, ExecutorService executor) {
+    // currentTask is done when the supplier runs, so get() doesn't block
     ThrowingSupplier<U> supplier = () -> {
       try {
         return mapping.apply(currentTask.get());
@@ -311,11 +486,7 @@ public class ChainableFuture<V> implements Future<V> {
       }
     };
 
-    ChainableFuture<U> childTask = new ChainableFuture<>(executor, supplier, isStrong);
-    childTask.parentTasks.add(this);
-    childrenCount.incrementAndGet();
-
-    return childTask;
+    return addChild(new ChainableFuture<>(executor, supplier, isStrong));
   }
 
   private ChainableFuture<V> thenHandleAsync(ThrowingFunction<? super Exception, V> handler,
@@ -335,39 +506,150 @@ public class ChainableFuture<V> implements Future<V> {
       }
     };
 
-    ChainableFuture<V> childTask = new ChainableFuture<>(executor, supplier, isStrong);
-    childTask.parentTasks.add(this);
-    childrenCount.incrementAndGet();
-
-    return childTask;
+    return addChild(new ChainableFuture<>(executor, supplier, isStrong));
   }
 
   private <U> ChainableFuture<U> thenComposeAsync(Function<? super V, ? extends Future<U>> function,
                                                   boolean isStrong, ExecutorService executor) {
-    ThrowingSupplier<U> supplier = () -> {
+    ChainableFuture<U> childTask = new ChainableFuture<>(executor, isStrong);
+    childTask.parentTasks.add(this);
+    childrenCount.incrementAndGet();
+
+    // The function runs on the executor, then childTask is completed by a callback of the returned future
+    Runnable composition = () -> {
+      if (childTask.isDone()) {
+        return;
+      }
+      if (isFailedOrCancelled()) {
+        childTask.currentTask.fail(toChainException());
+        return;
+      }
       try {
-        return function.apply(currentTask.get()).get();
-      } catch (ExecutionException ex) {
-        throw new ChainExecutionException(ex);
-      } catch (CancellationException ex) { // NOSONAR
-        throw new ChainExecutionException(ex);
+        childTask.completeWith(function.apply(currentTask.resultNow()));
+      } catch (RuntimeException ex) {
+        childTask.currentTask.fail(ex);
       }
     };
+    currentTask.onCompletion(() -> childTask.execute(composition));
 
-    ChainableFuture<U> childTask = new ChainableFuture<>(executor, supplier, isStrong);
+    return childTask;
+  }
+
+  private ChainableFuture<V> thenTimeoutAsync(Duration timeout, Consumer<ChainableFuture<V>> timeoutAction) {
+    long timeoutNanos = timeout.toNanos();
+    ChainableFuture<V> childTask = new ChainableFuture<>(executor, isStrong);
     childTask.parentTasks.add(this);
     childrenCount.incrementAndGet();
 
+    Runnable expiration = () -> {
+      if (!childTask.isDone()) {
+        // Child is completed first, otherwise the cancelled parent would complete it
+        timeoutAction.accept(childTask);
+        childTask.sendCancellationNotifications(true);
+      }
+    };
+    ScheduledFuture<?> timer = scheduleHandOff(expiration, timeoutNanos);
+    childTask.currentTask.onCompletion(() -> timer.cancel(false));
+    currentTask.onCompletion(() -> childTask.completeFrom(currentTask));
+
     return childTask;
   }
 
+  // Completion callbacks and user executors may block or run user code, so the shared scheduler thread
+  // only hands the action to a virtual thread of its own
+  private static ScheduledFuture<?> scheduleHandOff(Runnable action, long delayNanos) {
+    return SchedulerHolder.SCHEDULER.schedule(() -> DEFAULT_EXECUTOR.execute(action),
+        delayNanos, TimeUnit.NANOSECONDS);
+  }
 
+  private <U> ChainableFuture<U> addChild(ChainableFuture<U> childTask) {
+    childTask.parentTasks.add(this);
+    childrenCount.incrementAndGet();
+    currentTask.onCompletion(childTask::start);
+    return childTask;
+  }
 
+  // Schedules own task, rejection fails it instead of throwing into a completing parent
+  private ChainableFuture<V> start() {
+    if (!currentTask.isDone()) {
+      execute(currentTask);
+    }
+    return this;
+  }
+
+  private void execute(Runnable runnable) {
+    try {
+      executor.execute(runnable);
+    } catch (RejectedExecutionException ex) {
+      currentTask.fail(ex);
+    }
+  }
+
+  private void completeWith(Future<V> future) {
+    if (future instanceof ChainableFuture<V> chainableFuture) {
+      chainableFuture.currentTask.onCompletion(() -> completeFrom(future));
+    } else if (future instanceof CompletionStage<?> stage) {
+      stage.whenComplete((_, _) -> completeFrom(future));
+    } else if (future.isDone()) {
+      completeFrom(future);
+    } else {
+      // Foreign future has no callbacks, so it is waited for on the executor
+      execute(() -> {
+        try {
+          future.get();
+        } catch (InterruptedException _) {
+          Thread.currentThread().interrupt();
+        } catch (Exception _) { } // NOSONAR
+        completeFrom(future);
+      });
+    }
+  }
+
+  private void completeFrom(Future<V> future) {
+    try {
+      currentTask.complete(future.get());
+    } catch (ExecutionException ex) {
+      currentTask.fail(new ChainExecutionException(ex));
+    } catch (CancellationException ex) {
+      currentTask.fail(new ChainExecutionException(ex));
+    } catch (InterruptedException ex) {
+      currentTask.fail(new ChainExecutionException(ex));
+    }
+  }
+
+  private boolean isFailedOrCancelled() {
+    return currentTask.state() != State.SUCCESS;
+  }
+
+  // Failure of this (done) future as children see it
+  private ChainExecutionException toChainException() {
+    try {
+      currentTask.get();
+      throw new IllegalStateException("Task has completed successfully");
+    } catch (ExecutionException ex) {
+      return new ChainExecutionException(ex);
+    } catch (CancellationException ex) {
+      return new ChainExecutionException(ex);
+    } catch (InterruptedException ex) {
+      return new ChainExecutionException(ex);
+    }
+  }
+
+  private static ChainableFuture<Void> newCompletedVoid() {
+    ChainableFuture<Void> future = new ChainableFuture<>(DEFAULT_EXECUTOR, true);
+    future.currentTask.complete(null);
+    return future;
+  }
+
+
+
+  // Each parent is notified once, even if combinator callbacks and cancel() race
   private void sendCancellationNotifications(boolean mayInterruptIfRunning) {
     for (ChainableFuture<?> parent : parentTasks) {
-      parent.handleCancellationNotification(mayInterruptIfRunning);
+      if (parentTasks.remove(parent)) {
+        parent.handleCancellationNotification(mayInterruptIfRunning);
+      }
     }
-    parentTasks.clear();
   }
 
   private void handleCancellationNotification(boolean mayInterruptIfRunning) {
@@ -375,4 +657,243 @@ public class ChainableFuture<V> implements Future<V> {
       cancel(mayInterruptIfRunning);
     }
   }
+
+
+
+  /** Attempts of a retried future, each attempt is a separate task and the delays run on the shared scheduler */
+  private static final class RetryRun<V> {
+
+    private final ChainableFuture<V> retryTask;
+    private final ThrowingSupplier<V> supplier;
+    private final RetryPolicy policy;
+    private final AtomicInteger attemptCount;
+    private volatile Future<?> currentAttempt;
+
+    RetryRun(ThrowingSupplier<V> supplier, RetryPolicy policy, boolean isStrong, ExecutorService executor) {
+      this.retryTask = new ChainableFuture<>(executor, isStrong);
+      this.supplier = Objects.requireNonNull(supplier);
+      this.policy = Objects.requireNonNull(policy);
+      this.attemptCount = new AtomicInteger();
+    }
+
+    ChainableFuture<V> start() {
+      retryTask.currentTask.onCompletion(() -> {
+        Future<?> attempt = currentAttempt;
+        if (retryTask.isCancelled() && attempt != null) {
+          attempt.cancel(true);
+        }
+      });
+      startAttempt();
+      return retryTask;
+    }
+
+    private void startAttempt() {
+      FutureTask<Void> attempt = new FutureTask<>(this::runAttempt, null);
+      currentAttempt = attempt;
+      // Cancellation might have missed the new attempt
+      if (retryTask.isDone()) {
+        return;
+      }
+      retryTask.execute(attempt);
+    }
+
+    private void runAttempt() {
+      int attemptNumber = attemptCount.incrementAndGet();
+      try {
+        retryTask.currentTask.complete(supplier.get());
+      } catch (Exception ex) {
+        if (attemptNumber < policy.getMaxAttempts() && policy.isRetryable(ex) && !retryTask.isDone()) {
+          scheduleHandOff(this::startAttempt, policy.getDelayNanos(attemptNumber));
+        } else {
+          retryTask.currentTask.fail(ex);
+        }
+      } catch (Throwable ex) { // NOSONAR
+        retryTask.currentTask.fail(ex);
+      }
+    }
+  }
+
+
+
+  /**
+   * Loop over [start, end) in chunks. Up to PARALLELISM workers take chunks from a shared cursor,
+   * a single chunk runs on the caller, as does a worker rejected by the executor.
+   * The loop future completes once all workers have stopped; the first failure stops taking chunks
+   * and fails it, cancellation of it is cooperative: workers stop before the next chunk
+   */
+  private static final class ParallelLoop<R> implements Runnable {
+
+    private final ChainableFuture<R> loop;
+    private final long start;
+    private final long end;
+    private final int chunkSize;
+    private final long chunkCount;
+    private final R identity;
+    private final ThrowingRangeFunction<R> mapping;
+    private final BinaryOperator<R> combiner; // null if results are not needed
+    private final Object[] chunkResults;
+    private final AtomicLong chunkCursor;
+    private final AtomicInteger activeWorkerCount;
+    private final AtomicReference<Throwable> failure;
+
+    ParallelLoop(long start, long end, int chunkSize, R identity, ThrowingRangeFunction<R> mapping,
+                 BinaryOperator<R> combiner, ExecutorService executor) {
+      if (start > end || chunkSize <= 0) {
+        throw new IllegalArgumentException("Range must not be reversed and chunkSize must be positive");
+      }
+      long rangeLength = end - start;
+      if (rangeLength < 0) {
+        throw new IllegalArgumentException("Range is too long");
+      }
+
+      this.chunkCount = rangeLength / chunkSize + (rangeLength % chunkSize == 0 ? 0 : 1);
+      if (combiner != null && chunkCount > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException("Too many chunks to combine, chunkSize must be larger");
+      }
+
+      this.loop = new ChainableFuture<>(executor, true);
+      this.start = start;
+      this.end = end;
+      this.chunkSize = chunkSize;
+      this.identity = identity;
+      this.mapping = Objects.requireNonNull(mapping);
+      this.combiner = combiner;
+      this.chunkResults = combiner == null ? null : new Object[(int) chunkCount];
+      this.chunkCursor = new AtomicLong();
+      this.activeWorkerCount = new AtomicInteger();
+      this.failure = new AtomicReference<>();
+    }
+
+    ChainableFuture<R> start() {
+      int workerCount = (int) Math.min(PARALLELISM, chunkCount);
+      if (workerCount == 0) {
+        finish();
+        return loop;
+      }
+
+      activeWorkerCount.set(workerCount);
+      if (chunkCount == 1) {
+        run();
+        return loop;
+      }
+      for (int i = 0; i < workerCount; ++i) {
+        try {
+          loop.executor.execute(this);
+        } catch (RejectedExecutionException _) {
+          run();
+        }
+      }
+      return loop;
+    }
+
+    @Override
+    public void run() {
+      try {
+        long chunkIdx;
+        while (!loop.isDone() && (chunkIdx = chunkCursor.getAndIncrement()) < chunkCount) {
+          long from = start + chunkIdx * chunkSize;
+          R res = mapping.apply(from, from + Math.min(chunkSize, end - from));
+          if (chunkResults != null) {
+            chunkResults[(int) chunkIdx] = res;
+          }
+        }
+      } catch (Throwable ex) { // NOSONAR
+        failure.compareAndSet(null, ex);
+        chunkCursor.set(chunkCount);
+      } finally {
+        // The last worker sees all chunk results, they are published by the counter updates
+        if (activeWorkerCount.decrementAndGet() <= 0) {
+          finish();
+        }
+      }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void finish() {
+      // Cancelled loop has unfilled chunk results, they must not reach the combiner
+      if (loop.isDone()) {
+        return;
+      }
+      Throwable ex = failure.get();
+      if (ex != null) {
+        loop.currentTask.fail(ex);
+        return;
+      }
+      if (combiner == null) {
+        loop.currentTask.complete(identity);
+        return;
+      }
+
+      try {
+        R res = identity;
+        for (Object chunkResult : chunkResults) {
+          res = combiner.apply(res, (R) chunkResult);
+        }
+        loop.currentTask.complete(res);
+      } catch (RuntimeException combinerEx) {
+        loop.currentTask.fail(combinerEx);
+      }
+    }
+  }
+
+
+
+  /** Timer of timeouts and retry delays, shared by all futures; see scheduleHandOff */
+  private static final class SchedulerHolder {
+    private static final ScheduledExecutorService SCHEDULER = newScheduler();
+
+    private static ScheduledExecutorService newScheduler() {
+      ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "chainable-future-scheduler");
+        thread.setDaemon(true);
+        return thread;
+      });
+      // Timers of futures completed in time are dropped at once instead of waiting in the queue
+      scheduler.setRemoveOnCancelPolicy(true);
+      return scheduler;
+    }
+  }
+
+
+
+  /** FutureTask which runs completion callbacks and may be completed without being run */
+  private static final class Task<V> extends FutureTask<V> {
+
+    private List<Runnable> callbacks = new ArrayList<>(1); // null once done
+
+    Task(Callable<V> callable) {
+      super(callable);
+    }
+
+    // Callback runs on the completing thread or right away if the task is done, so it must be cheap
+    void onCompletion(Runnable callback) {
+      synchronized (this) {
+        if (callbacks != null) {
+          callbacks.add(callback);
+          return;
+        }
+      }
+      callback.run();
+    }
+
+    void complete(V value) {
+      set(value);
+    }
+
+    void fail(Throwable ex) {
+      setException(ex);
+    }
+
+    @Override
+    protected void done() {
+      List<Runnable> readyCallbacks;
+      synchronized (this) {
+        readyCallbacks = callbacks;
+        callbacks = null;
+      }
+      for (Runnable callback : readyCallbacks) {
+        callback.run();
+      }
+    }
+  }
 }
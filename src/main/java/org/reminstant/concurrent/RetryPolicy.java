@@ -0,0 +1,61 @@
+package org.reminstant.concurrent;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/** Attempts and delays of {@link ChainableFuture} retries; instances are immutable */
+public final class RetryPolicy {
+
+  private final int maxAttempts;
+  private final Duration initialDelay;
+  private final double backoffMultiplier;
+  private final Duration maxDelay;
+  private final Predicate<? super Exception> retryCondition;
+
+
+  private RetryPolicy(int maxAttempts, Duration initialDelay, double backoffMultiplier, Duration maxDelay,
+                      Predicate<? super Exception> retryCondition) {
+    if (maxAttempts <= 0) {
+      throw new IllegalArgumentException("maxAttempts must be positive");
+    }
+    if (initialDelay.isNegative() || maxDelay.compareTo(initialDelay) < 0 || backoffMultiplier < 1) {
+      throw new IllegalArgumentException(
+          "Delays must be non-negative, maxDelay must not be less than initialDelay, multiplier must be at least 1");
+    }
+    this.maxAttempts = maxAttempts;
+    this.initialDelay = initialDelay;
+    this.backoffMultiplier = backoffMultiplier;
+    this.maxDelay = maxDelay;
+    this.retryCondition = Objects.requireNonNull(retryCondition);
+  }
+
+  public static RetryPolicy fixedDelay(int maxAttempts, Duration delay) {
+    return new RetryPolicy(maxAttempts, delay, 1, delay, _ -> true);
+  }
+
+  // Delay doubles after each failed attempt up to maxDelay
+  public static RetryPolicy exponentialBackoff(int maxAttempts, Duration initialDelay, Duration maxDelay) {
+    return new RetryPolicy(maxAttempts, initialDelay, 2, maxDelay, _ -> true);
+  }
+
+  // Other exceptions fail the retried future at once
+  public RetryPolicy retryingOn(Predicate<? super Exception> condition) {
+    return new RetryPolicy(maxAttempts, initialDelay, backoffMultiplier, maxDelay, condition);
+  }
+
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  boolean isRetryable(Exception ex) {
+    return retryCondition.test(ex);
+  }
+
+  // Delay after failedAttemptCount failed attempts
+  long getDelayNanos(int failedAttemptCount) {
+    double delayNanos = initialDelay.toNanos() * Math.pow(backoffMultiplier, failedAttemptCount - 1.0);
+    return (long) Math.min(delayNanos, maxDelay.toNanos());
+  }
+}
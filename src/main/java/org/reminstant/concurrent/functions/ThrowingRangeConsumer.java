@@ -0,0 +1,6 @@
+package org.reminstant.concurrent.functions;
+
+@FunctionalInterface
+public interface ThrowingRangeConsumer {
+  void accept(long startInclusive, long endExclusive) throws Exception;
+}
@@ -0,0 +1,6 @@
+package org.reminstant.concurrent.functions;
+
+@FunctionalInterface
+public interface ThrowingRangeFunction<R> {
+  R apply(long startInclusive, long endExclusive) throws Exception;
+}
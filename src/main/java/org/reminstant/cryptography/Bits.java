@@ -79,6 +79,20 @@ public final class Bits {
     }
   }
 
+  public static void xorInPlace(byte[] lhs, int lhsOffset, byte[] rhs, int rhsOffset, int length) {
+    for (int i = 0; i < length; ++i) {
+      lhs[lhsOffset + i] ^= rhs[rhsOffset + i];
+    }
+  }
+
+  public static void swapInPlace(byte[] data, int lhsOffset, int rhsOffset, int length) {
+    for (int i = 0; i < length; ++i) {
+      byte tmp = data[lhsOffset + i];
+      data[lhsOffset + i] = data[rhsOffset + i];
+      data[rhsOffset + i] = tmp;
+    }
+  }
+
   public static void xorInPlace(int[] lhs, int[] rhs) {
     if (lhs.length != rhs.length) {
       throw new IllegalArgumentException("XOR arguments have different length");
@@ -118,7 +132,7 @@ public final class Bits {
     }
     int highPart = packBigEndianToInt(bytes, offset);
     int lowPart = packBigEndianToInt(bytes, offset + 4);
-    return Integer.toUnsignedLong(highPart) << 32 | lowPart;
+    return Integer.toUnsignedLong(highPart) << 32 | Integer.toUnsignedLong(lowPart);
   }
 
   public static int packLittleEndianToInt(byte[] bytes, int offset) {
@@ -136,9 +150,9 @@ public final class Bits {
     if (offset + 7 >= bytes.length) {
       throw new IllegalArgumentException("Not enough bytes for long");
     }
-    int highPart = packBigEndianToInt(bytes, offset + 4);
-    int lowPart = packBigEndianToInt(bytes, offset);
-    return Integer.toUnsignedLong(highPart) << 32 | lowPart;
+    int highPart = packLittleEndianToInt(bytes, offset + 4);
+    int lowPart = packLittleEndianToInt(bytes, offset);
+    return Integer.toUnsignedLong(highPart) << 32 | Integer.toUnsignedLong(lowPart);
   }
 
   // --- UNPACKING int/long -> byte[] ---
@@ -0,0 +1,119 @@
+package org.reminstant.cryptography;
+
+/**
+ * Bit permutation rule in the sense of {@link Bits#permute(byte[], int[], BitNumbering)} compiled for inputs
+ * of a fixed byte-size. Output is the OR of one table entry per input byte, so applying it takes
+ * O(input bytes * output longs) lookups with no per-bit work. Instances are immutable and thread-safe.
+ */
+public final class CompiledPermutation {
+
+  private static final int BYTE_VALUE_COUNT = 256;
+
+  private final int inputByteSize;
+  private final int outputByteSize;
+  private final int laneCount;
+  // tables[(256 * inputByte + value) * laneCount + lane]: output bits set by the value of the input byte.
+  // Lane k holds output bytes [8k, 8k + 8) packed big-endian and aligned to the least significant byte
+  private final long[] tables;
+
+
+  public CompiledPermutation(int[] permutationRule, BitNumbering numbering, int inputByteSize) {
+    if (permutationRule.length % Byte.SIZE != 0 || inputByteSize <= 0) {
+      throw new IllegalArgumentException("Permutation rule must produce whole bytes from non-empty input");
+    }
+
+    this.inputByteSize = inputByteSize;
+    this.outputByteSize = permutationRule.length / Byte.SIZE;
+    this.laneCount = (outputByteSize + Long.BYTES - 1) / Long.BYTES;
+    this.tables = new long[inputByteSize * BYTE_VALUE_COUNT * laneCount];
+
+    int setShift = (numbering == BitNumbering.LSB1_FIRST || numbering == BitNumbering.MSB1_FIRST) ? 1 : 0;
+    for (int i = 0; i < permutationRule.length; ++i) {
+      int srcBit;
+      int dstBit;
+      try {
+        srcBit = locateBit(numbering, inputByteSize, permutationRule[i]);
+        dstBit = locateBit(numbering, outputByteSize, i + setShift);
+      } catch (IndexOutOfBoundsException e) {
+        throw new IllegalArgumentException("Arguments are inconsistent", e);
+      }
+
+      int srcByte = srcBit / Byte.SIZE;
+      int srcShift = srcBit % Byte.SIZE;
+      int lane = dstBit / Long.SIZE;
+      int laneShift = Byte.SIZE * (getLaneByteCount(lane) - 1 - dstBit / Byte.SIZE % Long.BYTES)
+          + dstBit % Byte.SIZE;
+
+      for (int value = 0; value < BYTE_VALUE_COUNT; ++value) {
+        if ((value >>> srcShift & 1) == 1) {
+          tables[(BYTE_VALUE_COUNT * srcByte + value) * laneCount + lane] |= 1L << laneShift;
+        }
+      }
+    }
+  }
+
+
+  public int getInputByteSize() {
+    return inputByteSize;
+  }
+
+  public int getOutputByteSize() {
+    return outputByteSize;
+  }
+
+  public byte[] apply(byte[] data) {
+    if (data.length != inputByteSize) {
+      throw new IllegalArgumentException(
+          String.format("This permutation handles inputs of %d byte-size", inputByteSize));
+    }
+    byte[] res = new byte[outputByteSize];
+    apply(data, 0, res, 0);
+    return res;
+  }
+
+  public void apply(byte[] data, int dataOffset, byte[] out, int outOffset) {
+    for (int lane = 0; lane < laneCount; ++lane) {
+      long res = 0;
+      for (int i = 0; i < inputByteSize; ++i) {
+        int value = data[dataOffset + i] & 0xFF;
+        res |= tables[(BYTE_VALUE_COUNT * i + value) * laneCount + lane];
+      }
+
+      int laneByteCount = getLaneByteCount(lane);
+      int laneOffset = outOffset + lane * Long.BYTES;
+      for (int j = 0; j < laneByteCount; ++j) {
+        out[laneOffset + j] = (byte) (res >>> (Byte.SIZE * (laneByteCount - 1 - j)));
+      }
+    }
+  }
+
+  // Input and output are big-endian numbers (as in Bits.packToLong), so both sizes must not exceed 8 bytes
+  public long apply(long data) {
+    if (laneCount != 1 || inputByteSize > Long.BYTES) {
+      throw new IllegalStateException("This permutation cannot be applied to long values");
+    }
+
+    long res = 0;
+    for (int i = 0; i < inputByteSize; ++i) {
+      int value = (int) (data >>> (Byte.SIZE * (inputByteSize - 1 - i))) & 0xFF;
+      res |= tables[BYTE_VALUE_COUNT * i + value];
+    }
+    return res;
+  }
+
+  private int getLaneByteCount(int lane) {
+    return Math.min(Long.BYTES, outputByteSize - lane * Long.BYTES);
+  }
+
+  // Returns 8 * byteIndex + shift of the given bit, so that numbering semantics stay in one place
+  private static int locateBit(BitNumbering numbering, int byteSize, int index) {
+    byte[] probe = new byte[byteSize];
+    numbering.setBit(probe, index);
+    for (int j = 0; j < byteSize; ++j) {
+      if (probe[j] != 0) {
+        return j * Byte.SIZE + Integer.numberOfTrailingZeros(probe[j]);
+      }
+    }
+    throw new IllegalStateException("Bit has not been set");
+  }
+}
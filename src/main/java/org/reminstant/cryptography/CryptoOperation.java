@@ -1,7 +1,16 @@
 package org.reminstant.cryptography;
 
+import java.util.Arrays;
+
 @FunctionalInterface
 public interface CryptoOperation {
 
   byte[] apply(byte[] data, byte[] key);
+
+  // XORs apply(data[dataOffset, dataOffset + dataLength), key) into target starting at targetOffset.
+  // Implementations should override it to avoid intermediate allocations
+  default void applyXor(byte[] data, int dataOffset, int dataLength, byte[] key, byte[] target, int targetOffset) {
+    byte[] value = apply(Arrays.copyOfRange(data, dataOffset, dataOffset + dataLength), key);
+    Bits.xorInPlace(target, targetOffset, value, 0, value.length);
+  }
 }
@@ -6,6 +6,27 @@ public interface SymmetricCryptoSystem {
 
   byte[] decrypt(byte[] data);
 
+  // Block-wise variants write the result into out without allocating; in and out may be the same region
+  void encryptBlock(byte[] in, int inOffset, byte[] out, int outOffset);
+
+  void decryptBlock(byte[] in, int inOffset, byte[] out, int outOffset);
+
+  // Handles blockCount consecutive independent blocks in one call, so implementations
+  // may amortize per-call setup or interleave blocks through the rounds
+  default void encryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    int blockByteSize = getBlockByteSize();
+    for (int i = 0; i < blockCount; ++i) {
+      encryptBlock(in, inOffset + i * blockByteSize, out, outOffset + i * blockByteSize);
+    }
+  }
+
+  default void decryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    int blockByteSize = getBlockByteSize();
+    for (int i = 0; i < blockCount; ++i) {
+      decryptBlock(in, inOffset + i * blockByteSize, out, outOffset + i * blockByteSize);
+    }
+  }
+
   void setKey(byte[] key);
 
   int getBlockByteSize();
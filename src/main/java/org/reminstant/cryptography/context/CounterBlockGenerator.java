@@ -0,0 +1,114 @@
+package org.reminstant.cryptography.context;
+
+import org.reminstant.cryptography.Bits;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Produces big-endian counter blocks {@code initValue + i * delta (mod 2^(8 * blockByteSize))}
+ * kept in 64-bit lanes. Not thread-safe: use {@link #copy()} to get one per worker.
+ */
+final class CounterBlockGenerator {
+
+  private final int blockByteSize;
+  private final long topLaneMask;
+  private final long[] initValue;
+  private final long[] delta;
+  private final long[] counter;
+
+
+  CounterBlockGenerator(byte[] initValue, BigInteger delta) {
+    if (initValue.length == 0) {
+      throw new IllegalArgumentException("Counter block must be non-empty");
+    }
+    if (delta.signum() < 0) {
+      throw new IllegalArgumentException("Counter delta must be non-negative");
+    }
+
+    this.blockByteSize = initValue.length;
+    int laneCount = (blockByteSize + Long.BYTES - 1) / Long.BYTES;
+    int topLaneBitCount = Byte.SIZE * (blockByteSize - (laneCount - 1) * Long.BYTES);
+    this.topLaneMask = topLaneBitCount == Long.SIZE ? -1L : (1L << topLaneBitCount) - 1;
+
+    byte[] paddedInitValue = new byte[laneCount * Long.BYTES];
+    System.arraycopy(initValue, 0, paddedInitValue, paddedInitValue.length - blockByteSize, blockByteSize);
+    this.initValue = toLanes(paddedInitValue);
+
+    byte[] deltaBytes = delta.toByteArray();
+    byte[] paddedDelta = new byte[laneCount * Long.BYTES];
+    int length = Math.min(deltaBytes.length, paddedDelta.length);
+    System.arraycopy(deltaBytes, deltaBytes.length - length, paddedDelta, paddedDelta.length - length, length);
+    this.delta = toLanes(paddedDelta);
+    this.delta[0] &= topLaneMask;
+
+    this.counter = this.initValue.clone();
+  }
+
+  private CounterBlockGenerator(CounterBlockGenerator other) {
+    this.blockByteSize = other.blockByteSize;
+    this.topLaneMask = other.topLaneMask;
+    this.initValue = other.initValue;
+    this.delta = other.delta;
+    this.counter = other.counter.clone();
+  }
+
+
+  CounterBlockGenerator copy() {
+    return new CounterBlockGenerator(this);
+  }
+
+  /** Positions the generator at the counter block with the given index */
+  void seek(long idx) {
+    if (idx < 0) {
+      throw new IllegalArgumentException("Counter block index must be non-negative");
+    }
+
+    // counter = initValue + idx * delta, lane by lane from the least significant one
+    long carry = 0;
+    for (int j = counter.length - 1; j >= 0; --j) {
+      long productLow = idx * delta[j];
+      long productHigh = Math.unsignedMultiplyHigh(idx, delta[j]);
+
+      long sum = initValue[j] + productLow;
+      long nextCarry = productHigh + (Long.compareUnsigned(sum, productLow) < 0 ? 1 : 0);
+      long res = sum + carry;
+      nextCarry += Long.compareUnsigned(res, sum) < 0 ? 1 : 0;
+
+      counter[j] = res;
+      carry = nextCarry;
+    }
+    counter[0] &= topLaneMask;
+  }
+
+  /** Writes the current counter block to out and advances the generator by delta */
+  void next(byte[] out, int offset) {
+    int topLaneByteCount = blockByteSize - (counter.length - 1) * Long.BYTES;
+    long top = counter[0];
+    for (int b = topLaneByteCount - 1; b >= 0; --b) {
+      out[offset++] = (byte) (top >>> (Byte.SIZE * b));
+    }
+    for (int j = 1; j < counter.length; ++j) {
+      Bits.unpackLongToBigEndian(counter[j], out, offset);
+      offset += Long.BYTES;
+    }
+
+    long carry = 0;
+    for (int j = counter.length - 1; j >= 0; --j) {
+      long sum = counter[j] + delta[j];
+      long nextCarry = Long.compareUnsigned(sum, delta[j]) < 0 ? 1 : 0;
+      long res = sum + carry;
+      nextCarry += Long.compareUnsigned(res, sum) < 0 ? 1 : 0;
+
+      counter[j] = res;
+      carry = nextCarry;
+    }
+    counter[0] &= topLaneMask;
+  }
+
+  private static long[] toLanes(byte[] bytes) {
+    long[] lanes = new long[bytes.length / Long.BYTES];
+    Arrays.setAll(lanes, j -> Bits.packBigEndianToLong(bytes, j * Long.BYTES));
+    return lanes;
+  }
+}
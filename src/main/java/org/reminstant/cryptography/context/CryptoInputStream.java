@@ -0,0 +1,126 @@
+package org.reminstant.cryptography.context;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Encrypts (decrypts) data read from the underlying stream on the fly.
+ * Padding is handled once the underlying stream reaches its end.
+ */
+public final class CryptoInputStream extends FilterInputStream {
+
+  private static final int READ_CHUNK_BYTE_SIZE = 1 << 13;
+
+  private final StreamingCipher cipher;
+  private final byte[] readBuffer;
+  private final byte[] singleByte = new byte[1];
+  private byte[] outBuffer;
+  private int outPosition;
+  private int outLimit;
+  private boolean isEndOfInput;
+  private boolean isClosed;
+
+  CryptoInputStream(InputStream in, StreamingCipher cipher) {
+    super(in);
+    this.cipher = cipher;
+    this.readBuffer = new byte[READ_CHUNK_BYTE_SIZE];
+    this.outBuffer = new byte[READ_CHUNK_BYTE_SIZE];
+  }
+
+  @Override
+  public int read() throws IOException {
+    int n = read(singleByte, 0, 1);
+    return n < 0 ? -1 : Byte.toUnsignedInt(singleByte[0]);
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    throwIfClosed();
+    if (len == 0) {
+      return 0;
+    }
+    while (outPosition == outLimit) {
+      if (isEndOfInput) {
+        return -1;
+      }
+      fill();
+    }
+
+    int n = Math.min(len, outLimit - outPosition);
+    System.arraycopy(outBuffer, outPosition, b, off, n);
+    outPosition += n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    long skipped = 0;
+    byte[] tmp = new byte[(int) Math.min(n, READ_CHUNK_BYTE_SIZE)];
+    while (skipped < n) {
+      int read = read(tmp, 0, (int) Math.min(n - skipped, tmp.length));
+      if (read < 0) {
+        break;
+      }
+      skipped += read;
+    }
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    throwIfClosed();
+    return outLimit - outPosition;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public synchronized void mark(int readlimit) {
+    // mark is not supported
+  }
+
+  @Override
+  public synchronized void reset() throws IOException {
+    throw new IOException("mark/reset not supported");
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    in.close();
+  }
+
+  private void fill() throws IOException {
+    outPosition = 0;
+    outLimit = 0;
+    int read = in.read(readBuffer, 0, readBuffer.length);
+    if (read < 0) {
+      isEndOfInput = true;
+      cipher.doFinal(this::append);
+    } else {
+      cipher.update(readBuffer, 0, read, this::append);
+    }
+  }
+
+  private void append(byte[] data, int offset, int length) {
+    if (outLimit + length > outBuffer.length) {
+      outBuffer = Arrays.copyOf(outBuffer, Math.max(outBuffer.length * 2, outLimit + length));
+    }
+    System.arraycopy(data, offset, outBuffer, outLimit, length);
+    outLimit += length;
+  }
+
+  private void throwIfClosed() throws IOException {
+    if (isClosed) {
+      throw new IOException("Stream closed");
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package org.reminstant.cryptography.context;
+
+/**
+ * Listener of the context hot path, set through {@link SymmetricCryptoContext#METRICS_PARAM}.
+ * Methods are called concurrently from all workers, so implementations must be thread-safe and cheap.
+ * Without the param the context neither measures time nor calls anything.
+ * <p>
+ * Parallel operations run in units: blocks, or segments and messages for the segmented format and batches.
+ */
+public interface CryptoMetrics {
+
+  /** Cipher core call over blockCount blocks */
+  default void onCipherCall(int blockCount, long nanos) {
+  }
+
+  /** Read of data blocks from the source (array, buffer or file) */
+  default void onRead(long byteCount, long nanos) {
+  }
+
+  /** Write of result blocks to the destination (array, buffer or file) */
+  default void onWrite(long byteCount, long nanos) {
+  }
+
+  /** Time between submitting a helper task and its start on the executor */
+  default void onQueueWait(long nanos) {
+  }
+
+  /** Time the calling thread waited for helpers after running out of chunks */
+  default void onJoinWait(long nanos) {
+  }
+
+  /**
+   * Worker (helper task or calling thread) has finished its part of a parallel operation;
+   * allocatedBytes is measured for the worker thread, it is -1 if the JVM cannot measure it
+   */
+  default void onWorkerFinished(long unitCount, long nanos, long allocatedBytes) {
+  }
+}
@@ -0,0 +1,117 @@
+package org.reminstant.cryptography.context;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/** Accumulates {@link CryptoMetrics} events in striped counters, one context or many may share it */
+public class CryptoMetricsCollector implements CryptoMetrics {
+
+  private final LongAdder cipherBlockCount = new LongAdder();
+  private final LongAdder cipherNanos = new LongAdder();
+  private final LongAdder readByteCount = new LongAdder();
+  private final LongAdder readNanos = new LongAdder();
+  private final LongAdder writtenByteCount = new LongAdder();
+  private final LongAdder writeNanos = new LongAdder();
+  private final LongAdder queueWaitCount = new LongAdder();
+  private final LongAdder queueWaitNanos = new LongAdder();
+  private final LongAdder joinWaitNanos = new LongAdder();
+  private final LongAdder workerCount = new LongAdder();
+  private final LongAdder workerUnitCount = new LongAdder();
+  private final LongAdder workerNanos = new LongAdder();
+  private final LongAdder allocatedByteCount = new LongAdder();
+
+
+  @Override
+  public void onCipherCall(int blockCount, long nanos) {
+    cipherBlockCount.add(blockCount);
+    cipherNanos.add(nanos);
+  }
+
+  @Override
+  public void onRead(long byteCount, long nanos) {
+    readByteCount.add(byteCount);
+    readNanos.add(nanos);
+  }
+
+  @Override
+  public void onWrite(long byteCount, long nanos) {
+    writtenByteCount.add(byteCount);
+    writeNanos.add(nanos);
+  }
+
+  @Override
+  public void onQueueWait(long nanos) {
+    queueWaitCount.increment();
+    queueWaitNanos.add(nanos);
+  }
+
+  @Override
+  public void onJoinWait(long nanos) {
+    joinWaitNanos.add(nanos);
+  }
+
+  @Override
+  public void onWorkerFinished(long unitCount, long nanos, long allocatedBytes) {
+    workerCount.increment();
+    workerUnitCount.add(unitCount);
+    workerNanos.add(nanos);
+    if (allocatedBytes > 0) {
+      allocatedByteCount.add(allocatedBytes);
+    }
+  }
+
+
+  public long getProcessedBlockCount() {
+    return cipherBlockCount.sum();
+  }
+
+  public long getReadByteCount() {
+    return readByteCount.sum();
+  }
+
+  public long getWrittenByteCount() {
+    return writtenByteCount.sum();
+  }
+
+  public long getCipherNanos() {
+    return cipherNanos.sum();
+  }
+
+  public long getIoNanos() {
+    return readNanos.sum() + writeNanos.sum();
+  }
+
+  // Queue waits of helpers plus join waits of calling threads
+  public long getSchedulingNanos() {
+    return queueWaitNanos.sum() + joinWaitNanos.sum();
+  }
+
+  public long getQueueWaitCount() {
+    return queueWaitCount.sum();
+  }
+
+  public long getQueueWaitNanos() {
+    return queueWaitNanos.sum();
+  }
+
+  public long getWorkerCount() {
+    return workerCount.sum();
+  }
+
+  // Units per second of a single worker, averaged over all finished workers
+  public double getWorkerThroughput() {
+    long nanos = workerNanos.sum();
+    return nanos == 0 ? 0 : 1e9 * workerUnitCount.sum() / nanos;
+  }
+
+  public long getAllocatedByteCount() {
+    return allocatedByteCount.sum();
+  }
+
+  public void reset() {
+    for (LongAdder adder : new LongAdder[] { cipherBlockCount, cipherNanos, readByteCount, readNanos,
+        writtenByteCount, writeNanos, queueWaitCount, queueWaitNanos, joinWaitNanos,
+        workerCount, workerUnitCount, workerNanos, allocatedByteCount }) {
+      adder.reset();
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.reminstant.cryptography.context;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Encrypts (decrypts) everything written to it and passes the result to the underlying stream.
+ * The last block (with padding) is written on {@link #close()}, so the stream must be closed.
+ */
+public final class CryptoOutputStream extends FilterOutputStream {
+
+  private final StreamingCipher cipher;
+  private final byte[] singleByte = new byte[1];
+  private boolean isClosed;
+
+  CryptoOutputStream(OutputStream out, StreamingCipher cipher) {
+    super(out);
+    this.cipher = cipher;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    singleByte[0] = (byte) b;
+    write(singleByte, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    throwIfClosed();
+    cipher.update(b, off, len, out::write);
+  }
+
+  /** Flushes the underlying stream; data of an incomplete block stays buffered until close */
+  @Override
+  public void flush() throws IOException {
+    throwIfClosed();
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (isClosed) {
+      return;
+    }
+    isClosed = true;
+    try {
+      cipher.doFinal(out::write);
+      out.flush();
+    } finally {
+      out.close();
+    }
+  }
+
+  private void throwIfClosed() throws IOException {
+    if (isClosed) {
+      throw new IOException("Stream closed");
+    }
+  }
+}
@@ -1,21 +1,25 @@
 package org.reminstant.cryptography.context;
 
 import org.reminstant.concurrent.ChainableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleConsumer;
 
 public class CryptoProgress<T> {
 
-  private final AtomicLong processedBlocksCount;
+  private static final Logger LOGGER = LoggerFactory.getLogger(CryptoProgress.class);
+
+  // workers add whole chunks to striped cells, so they do not contend for one counter
+  private final LongAdder processedBlocksCount;
 
   private long blockCount;
-  private ChainableFuture<T> future;
+  private volatile ChainableFuture<T> future;
 
   CryptoProgress() {
-    this.processedBlocksCount = new AtomicLong(0);
+    this.processedBlocksCount = new LongAdder();
     this.blockCount = 1;
   }
 
@@ -52,7 +56,20 @@ public class CryptoProgress<T> {
     if (future == null) {
       return 1;
     }
-    return 1.0 * processedBlocksCount.get() / blockCount;
+    return 1.0 * processedBlocksCount.sum() / blockCount;
+  }
+
+  /**
+   * Calls listener with the current progress every interval until the operation is done,
+   * then once more with the final progress. Listeners run on a shared scheduler thread and must be quick;
+   * exceptions thrown by a listener are logged and do not stop later calls
+   */
+  public void addProgressListener(DoubleConsumer listener, long interval, TimeUnit unit) {
+    if (interval <= 0) {
+      throw new IllegalArgumentException("Progress listener interval must be positive");
+    }
+
+    scheduleProgressListener(listener, unit.toNanos(interval), 0);
   }
 
   void setBlockCount(long blockCount) {
@@ -67,9 +84,31 @@ public class CryptoProgress<T> {
     return blockCount;
   }
 
-  void incrementProcessedBlocksCount() {
-    if (future != null) {
-      processedBlocksCount.incrementAndGet();
-    }
+  void addProcessedBlocksCount(long delta) {
+    processedBlocksCount.add(delta);
+  }
+
+  private void scheduleProgressListener(DoubleConsumer listener, long intervalNanos, long delayNanos) {
+    ListenerSchedulerHolder.SCHEDULER.schedule(() -> {
+      boolean isFinal = future == null || future.isDone();
+      try {
+        listener.accept(getProgress());
+      } catch (RuntimeException ex) {
+        LOGGER.error("Progress listener failed", ex);
+      }
+      if (!isFinal) {
+        scheduleProgressListener(listener, intervalNanos, intervalNanos);
+      }
+    }, delayNanos, TimeUnit.NANOSECONDS);
+  }
+
+
+  private static final class ListenerSchedulerHolder {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, "crypto-progress-listeners");
+          thread.setDaemon(true);
+          return thread;
+        });
   }
 }
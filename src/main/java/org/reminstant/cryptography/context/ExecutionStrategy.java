@@ -0,0 +1,42 @@
+package org.reminstant.cryptography.context;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/** Executors the context may run its parallel work on; each one is shared by all contexts using it */
+public enum ExecutionStrategy {
+  VIRTUAL_THREADS {
+    @Override
+    ExecutorService getExecutor() {
+      return VirtualThreadsHolder.EXECUTOR;
+    }
+  },
+  PLATFORM_THREADS { // fixed pool of daemon threads, one per available processor
+    @Override
+    ExecutorService getExecutor() {
+      return PlatformThreadsHolder.EXECUTOR;
+    }
+  },
+  FORK_JOIN_POOL { // common ForkJoinPool
+    @Override
+    ExecutorService getExecutor() {
+      return ForkJoinPool.commonPool();
+    }
+  };
+
+  abstract ExecutorService getExecutor();
+
+
+  // Holders create executors on first use only
+
+  private static final class VirtualThreadsHolder {
+    private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+  }
+
+  private static final class PlatformThreadsHolder {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        Thread.ofPlatform().name("crypto-worker-", 0).daemon().factory());
+  }
+}
@@ -0,0 +1,92 @@
+package org.reminstant.cryptography.context;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Region [0, size) of a file mapped lazily by fixed-size windows, so files larger than 2GB can be mapped.
+ * Accesses use absolute positions only, so one instance may be shared between threads.
+ */
+final class MappedFileWindows {
+
+  private final FileChannel fileChannel;
+  private final FileChannel.MapMode mapMode;
+  private final long size;
+  private final int windowByteSize;
+  private final AtomicReferenceArray<MappedByteBuffer> windows;
+
+
+  MappedFileWindows(FileChannel fileChannel, FileChannel.MapMode mapMode, long size, int windowByteSize) {
+    if (size < 0 || windowByteSize <= 0) {
+      throw new IllegalArgumentException("size must be non-negative and windowByteSize must be positive");
+    }
+
+    long windowCount = (size + windowByteSize - 1) / windowByteSize;
+    if (windowCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many windows for the given size");
+    }
+
+    this.fileChannel = fileChannel;
+    this.mapMode = mapMode;
+    this.size = size;
+    this.windowByteSize = windowByteSize;
+    this.windows = new AtomicReferenceArray<>((int) windowCount);
+  }
+
+
+  long size() {
+    return size;
+  }
+
+  void read(long position, byte[] dst, int offset, int length) {
+    throwIfOutOfBounds(position, length);
+    while (length > 0) {
+      int windowIdx = (int) (position / windowByteSize);
+      int windowOffset = (int) (position % windowByteSize);
+      int chunk = Math.min(length, windowByteSize - windowOffset);
+      getWindow(windowIdx).get(windowOffset, dst, offset, chunk);
+      position += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  void write(long position, byte[] src, int offset, int length) {
+    throwIfOutOfBounds(position, length);
+    while (length > 0) {
+      int windowIdx = (int) (position / windowByteSize);
+      int windowOffset = (int) (position % windowByteSize);
+      int chunk = Math.min(length, windowByteSize - windowOffset);
+      getWindow(windowIdx).put(windowOffset, src, offset, chunk);
+      position += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  private MappedByteBuffer getWindow(int windowIdx) {
+    MappedByteBuffer window = windows.get(windowIdx);
+    if (window != null) {
+      return window;
+    }
+
+    long windowStart = (long) windowIdx * windowByteSize;
+    try {
+      window = fileChannel.map(mapMode, windowStart, Math.min(windowByteSize, size - windowStart));
+    } catch (IOException ex) {
+      throw new UncheckedIOException("IOException occurred while mapping FileChannel", ex);
+    }
+    // another thread may have mapped the same window meanwhile; the extra mapping is just dropped
+    return windows.compareAndSet(windowIdx, null, window) ? window : windows.get(windowIdx);
+  }
+
+  private void throwIfOutOfBounds(long position, int length) {
+    if (position < 0 || length < 0 || position + length > size) {
+      throw new IndexOutOfBoundsException(
+          String.format("Region [%d, %d) is out of mapped bounds [0, %d)", position, position + length, size));
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.reminstant.cryptography.context;
+
+import org.reminstant.cryptography.SymmetricCryptoSystem;
+
+/** Reports time spent in the wrapped cipher core; the context wraps its cipher only if metrics are on */
+final class MeteredCryptoSystem implements SymmetricCryptoSystem {
+
+  private final SymmetricCryptoSystem cryptoSystem;
+  private final CryptoMetrics metrics;
+
+
+  MeteredCryptoSystem(SymmetricCryptoSystem cryptoSystem, CryptoMetrics metrics) {
+    this.cryptoSystem = cryptoSystem;
+    this.metrics = metrics;
+  }
+
+
+  @Override
+  public byte[] encrypt(byte[] data) {
+    long start = System.nanoTime();
+    byte[] res = cryptoSystem.encrypt(data);
+    metrics.onCipherCall(1, System.nanoTime() - start);
+    return res;
+  }
+
+  @Override
+  public byte[] decrypt(byte[] data) {
+    long start = System.nanoTime();
+    byte[] res = cryptoSystem.decrypt(data);
+    metrics.onCipherCall(1, System.nanoTime() - start);
+    return res;
+  }
+
+  @Override
+  public void encryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    long start = System.nanoTime();
+    cryptoSystem.encryptBlock(in, inOffset, out, outOffset);
+    metrics.onCipherCall(1, System.nanoTime() - start);
+  }
+
+  @Override
+  public void decryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    long start = System.nanoTime();
+    cryptoSystem.decryptBlock(in, inOffset, out, outOffset);
+    metrics.onCipherCall(1, System.nanoTime() - start);
+  }
+
+  @Override
+  public void encryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    long start = System.nanoTime();
+    cryptoSystem.encryptBlocks(in, inOffset, out, outOffset, blockCount);
+    metrics.onCipherCall(blockCount, System.nanoTime() - start);
+  }
+
+  @Override
+  public void decryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    long start = System.nanoTime();
+    cryptoSystem.decryptBlocks(in, inOffset, out, outOffset, blockCount);
+    metrics.onCipherCall(blockCount, System.nanoTime() - start);
+  }
+
+  @Override
+  public void setKey(byte[] key) {
+    cryptoSystem.setKey(key);
+  }
+
+  @Override
+  public int getBlockByteSize() {
+    return cryptoSystem.getBlockByteSize();
+  }
+}
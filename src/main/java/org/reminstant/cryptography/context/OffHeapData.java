@@ -0,0 +1,136 @@
+package org.reminstant.cryptography.context;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Byte sequence of up to Long.MAX_VALUE bytes stored off-heap in direct ByteBuffer segments,
+ * so data larger than 2GB fits and does not press on the heap. Accesses use absolute positions only,
+ * so threads may share one instance while working on disjoint regions.
+ * Memory is released when the instance becomes unreachable.
+ */
+public final class OffHeapData {
+
+  static final int DEFAULT_SEGMENT_BYTE_SIZE = 1 << 30;
+
+  private final int segmentByteSize;
+  private final ByteBuffer[] segments;
+  private long size;
+
+
+  OffHeapData(long size, int segmentByteSize) {
+    if (size < 0 || segmentByteSize <= 0) {
+      throw new IllegalArgumentException("size must be non-negative and segmentByteSize must be positive");
+    }
+
+    long segmentCount = (size + segmentByteSize - 1) / segmentByteSize;
+    if (segmentCount > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Too many segments for the given size");
+    }
+
+    this.segmentByteSize = segmentByteSize;
+    this.segments = new ByteBuffer[(int) segmentCount];
+    for (int k = 0; k < segments.length; ++k) {
+      segments[k] = ByteBuffer.allocateDirect((int) Math.min(segmentByteSize, size - (long) k * segmentByteSize));
+    }
+    this.size = size;
+  }
+
+  public static OffHeapData allocate(long size) {
+    return new OffHeapData(size, DEFAULT_SEGMENT_BYTE_SIZE);
+  }
+
+  public static OffHeapData copyOf(byte[] data) {
+    OffHeapData res = allocate(data.length);
+    res.write(0, data, 0, data.length);
+    return res;
+  }
+
+
+  public long size() {
+    return size;
+  }
+
+  public void read(long position, byte[] dst, int offset, int length) {
+    throwIfOutOfBounds(position, length);
+    while (length > 0) {
+      int segmentIdx = (int) (position / segmentByteSize);
+      int segmentOffset = (int) (position % segmentByteSize);
+      int chunk = Math.min(length, segmentByteSize - segmentOffset);
+      segments[segmentIdx].get(segmentOffset, dst, offset, chunk);
+      position += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  public void write(long position, byte[] src, int offset, int length) {
+    throwIfOutOfBounds(position, length);
+    while (length > 0) {
+      int segmentIdx = (int) (position / segmentByteSize);
+      int segmentOffset = (int) (position % segmentByteSize);
+      int chunk = Math.min(length, segmentByteSize - segmentOffset);
+      segments[segmentIdx].put(segmentOffset, src, offset, chunk);
+      position += chunk;
+      offset += chunk;
+      length -= chunk;
+    }
+  }
+
+  /** Returns read-only views of the segments covering [0, size) in order */
+  public List<ByteBuffer> asByteBuffers() {
+    List<ByteBuffer> views = new ArrayList<>(segments.length);
+    long remaining = size;
+    for (int k = 0; k < segments.length && remaining > 0; ++k) {
+      int length = (int) Math.min(segments[k].capacity(), remaining);
+      views.add(segments[k].asReadOnlyBuffer().limit(length));
+      remaining -= length;
+    }
+    return views;
+  }
+
+  public void writeTo(WritableByteChannel channel) throws IOException {
+    for (ByteBuffer view : asByteBuffers()) {
+      while (view.hasRemaining()) {
+        channel.write(view);
+      }
+    }
+  }
+
+  public void writeTo(OutputStream out) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    for (long position = 0; position < size; position += buffer.length) {
+      int length = (int) Math.min(buffer.length, size - position);
+      read(position, buffer, 0, length);
+      out.write(buffer, 0, length);
+    }
+  }
+
+  public byte[] toByteArray() {
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Data is too large to be copied into an array");
+    }
+    byte[] res = new byte[(int) size];
+    read(0, res, 0, res.length);
+    return res;
+  }
+
+  // Cuts the tail off (message padding), the memory stays allocated
+  void truncate(long newSize) {
+    if (newSize < 0 || newSize > size) {
+      throw new IllegalArgumentException("New size must be in [0, size]");
+    }
+    size = newSize;
+  }
+
+  private void throwIfOutOfBounds(long position, int length) {
+    if (position < 0 || length < 0 || position > size - length) {
+      throw new IndexOutOfBoundsException(
+          String.format("Range [%d, %d) is out of [0, %d)", position, position + length, size));
+    }
+  }
+}
@@ -12,12 +12,12 @@ public enum Padding {
 
   NONE {
     @Override
-    protected void fill(byte[] paddedBlock, int blockSize) {
+    protected void fill(byte[] block, int dataEnd, int blockEnd) {
       throw new UnsupportedOperationException("None-padding cannot set padding");
     }
 
     @Override
-    protected int scan(byte[] block) {
+    protected int scan(byte[] block, int blockOffset, int blockEnd) {
       return 0;
     }
 
@@ -29,14 +29,14 @@ public enum Padding {
 
   ZEROS {
     @Override
-    protected void fill(byte[] paddedBlock, int blockSize) {
-      Arrays.fill(paddedBlock, blockSize, paddedBlock.length, (byte) 0);
+    protected void fill(byte[] block, int dataEnd, int blockEnd) {
+      Arrays.fill(block, dataEnd, blockEnd, (byte) 0);
     }
 
     @Override
-    protected int scan(byte[] block) {
+    protected int scan(byte[] block, int blockOffset, int blockEnd) {
       int byteToEraseCnt = 0;
-      for (int i = block.length - 1; i >= 0 && block[i] == 0; --i) {
+      for (int i = blockEnd - 1; i >= blockOffset && block[i] == 0; --i) {
         byteToEraseCnt++;
       }
       return byteToEraseCnt;
@@ -45,44 +45,44 @@ public enum Padding {
 
   ANSI_X923 {
     @Override
-    protected void fill(byte[] paddedBlock, int blockSize) {
-      int addedBitsCount = paddedBlock.length - blockSize;
-      paddedBlock[paddedBlock.length - 1] = (byte) addedBitsCount;
-      Arrays.fill(paddedBlock, blockSize, paddedBlock.length - 1, (byte) 0);
+    protected void fill(byte[] block, int dataEnd, int blockEnd) {
+      int addedBitsCount = blockEnd - dataEnd;
+      block[blockEnd - 1] = (byte) addedBitsCount;
+      Arrays.fill(block, dataEnd, blockEnd - 1, (byte) 0);
     }
 
     @Override
-    protected int scan(byte[] block) {
-      return Byte.toUnsignedInt(block[block.length - 1]);
+    protected int scan(byte[] block, int blockOffset, int blockEnd) {
+      return Byte.toUnsignedInt(block[blockEnd - 1]);
     }
   },
 
   PKCS7 {
     @Override
-    protected void fill(byte[] paddedBlock, int blockSize) {
-      int addedBitsCount = paddedBlock.length - blockSize;
-      paddedBlock[paddedBlock.length - 1] = (byte) addedBitsCount;
-      Arrays.fill(paddedBlock, blockSize, paddedBlock.length - 1, (byte) (addedBitsCount + 1));
+    protected void fill(byte[] block, int dataEnd, int blockEnd) {
+      int addedBitsCount = blockEnd - dataEnd;
+      block[blockEnd - 1] = (byte) addedBitsCount;
+      Arrays.fill(block, dataEnd, blockEnd - 1, (byte) (addedBitsCount + 1));
     }
 
     @Override
-    protected int scan(byte[] block) {
-      return Byte.toUnsignedInt(block[block.length - 1]);
+    protected int scan(byte[] block, int blockOffset, int blockEnd) {
+      return Byte.toUnsignedInt(block[blockEnd - 1]);
     }
   },
 
   ISO_10126 {
     @Override
-    protected void fill(byte[] paddedBlock, int blockSize) {
-      int addedBitsCount = paddedBlock.length - blockSize;
-      paddedBlock[paddedBlock.length - 1] = (byte) addedBitsCount;
-      IntStream.range(blockSize, paddedBlock.length - 1)
-          .forEach(i -> paddedBlock[i] = (byte) RANDOM.nextInt());
+    protected void fill(byte[] block, int dataEnd, int blockEnd) {
+      int addedBitsCount = blockEnd - dataEnd;
+      block[blockEnd - 1] = (byte) addedBitsCount;
+      IntStream.range(dataEnd, blockEnd - 1)
+          .forEach(i -> block[i] = (byte) RANDOM.nextInt());
     }
 
     @Override
-    protected int scan(byte[] block) {
-      return Byte.toUnsignedInt(block[block.length - 1]);
+    protected int scan(byte[] block, int blockOffset, int blockEnd) {
+      return Byte.toUnsignedInt(block[blockEnd - 1]);
     }
   };
 
@@ -91,32 +91,33 @@ public enum Padding {
   private static final Random RANDOM = new Random();
 
 
-  protected abstract void fill(byte[] paddedBlock, int blockSize);
+  // Writes padding to [dataEnd, blockEnd), where blockEnd is the end of the block
+  protected abstract void fill(byte[] block, int dataEnd, int blockEnd);
 
-  protected abstract int scan(byte[] block);
+  // Returns the count of padding bytes at the end of [blockOffset, blockEnd)
+  protected abstract int scan(byte[] block, int blockOffset, int blockEnd);
 
 
   boolean isSetAlways() {
     return true;
   }
 
-  byte[] setPadding(byte[] block, int blockByteSize) {
-    if (block.length == blockByteSize) {
-      return block;
+  // Block at [offset, offset + blockSize) is padded in place; dataLength is the count of its meaningful bytes
+  void setPadding(byte[] block, int offset, int blockSize, int dataLength) {
+    if (dataLength < blockSize) {
+      fill(block, offset + dataLength, offset + blockSize);
     }
-    byte[] paddedBlock = Arrays.copyOf(block, blockByteSize);
-    fill(paddedBlock, block.length);
-    return paddedBlock;
   }
 
-  byte[] clearPadding(byte[] block) {
-    int byteToEraseCnt = scan(block);
-    if (byteToEraseCnt > block.length) {
-      byteToEraseCnt = block.length;
+  int getPaddingLength(byte[] block, int offset, int blockSize) {
+    int byteToEraseCnt = scan(block, offset, offset + blockSize);
+    if (byteToEraseCnt > blockSize) {
+      byteToEraseCnt = blockSize;
       if (LOGGER.isErrorEnabled()) {
-        LOGGER.error("Block ({}) does not match the rules of padding", Bits.toHexString(block));
+        LOGGER.error("Block ({}) does not match the rules of padding",
+            Bits.toHexString(Arrays.copyOfRange(block, offset, offset + blockSize)));
       }
     }
-    return Arrays.copyOf(block, block.length - byteToEraseCnt);
+    return byteToEraseCnt;
   }
 }
\ No newline at end of file
@@ -0,0 +1,154 @@
+package org.reminstant.cryptography.context;
+
+import org.reminstant.cryptography.Bits;
+
+/**
+ * Header of the segmented cipher format: segments are chained independently, each from its own IV.
+ * <p>
+ * Layout, padded with zeroes to whole blocks before the IV table:
+ * segment count (8 bytes), nominal segment block count (8 bytes), block count of every segment
+ * (8 bytes each), then one IV block per segment. All numbers are big-endian.
+ */
+final class SegmentHeader {
+
+  private static final int PREFIX_BYTE_SIZE = 2 * Long.BYTES;
+  private static final int MAX_HEADER_BYTE_SIZE = Integer.MAX_VALUE - 8;
+
+  private final int blockByteSize;
+  private final long nominalSegmentBlockCount;
+  private final long[] segmentFirstBlocks;
+  private final long[] segmentBlockCounts;
+  private final byte[] initVectors;
+
+
+  private SegmentHeader(int blockByteSize, long nominalSegmentBlockCount,
+                        long[] segmentBlockCounts, byte[] initVectors) {
+    this.blockByteSize = blockByteSize;
+    this.nominalSegmentBlockCount = nominalSegmentBlockCount;
+    this.segmentBlockCounts = segmentBlockCounts;
+    this.initVectors = initVectors;
+    this.segmentFirstBlocks = new long[segmentBlockCounts.length];
+    for (int k = 1; k < segmentBlockCounts.length; ++k) {
+      segmentFirstBlocks[k] = segmentFirstBlocks[k - 1] + segmentBlockCounts[k - 1];
+    }
+  }
+
+  /** Splits bodyBlockCount blocks into segments of segmentBlockCount blocks (the last one may be shorter) */
+  static SegmentHeader split(int blockByteSize, long bodyBlockCount, int segmentBlockCount) {
+    long segmentCount = (bodyBlockCount + segmentBlockCount - 1) / segmentBlockCount;
+    throwIfTooManySegments(blockByteSize, segmentCount);
+
+    long[] segmentBlockCounts = new long[(int) segmentCount];
+    for (int k = 0; k < segmentCount; ++k) {
+      segmentBlockCounts[k] = Math.min(segmentBlockCount, bodyBlockCount - (long) k * segmentBlockCount);
+    }
+    return new SegmentHeader(blockByteSize, segmentBlockCount, segmentBlockCounts,
+        new byte[(int) segmentCount * blockByteSize]);
+  }
+
+  static int getBlockCount(int blockByteSize, long bodyBlockCount, int segmentBlockCount) {
+    long segmentCount = (bodyBlockCount + segmentBlockCount - 1) / segmentBlockCount;
+    throwIfTooManySegments(blockByteSize, segmentCount);
+    return getBlockCount(blockByteSize, (int) segmentCount);
+  }
+
+  /** Returns the header block count given its first {@link #getPrefixBlockCount} blocks */
+  static int readBlockCount(int blockByteSize, byte[] prefix) {
+    long segmentCount = Bits.packBigEndianToLong(prefix, 0);
+    if (segmentCount < 0) {
+      throw new IllegalArgumentException("Incorrect segmented cipher header");
+    }
+    throwIfTooManySegments(blockByteSize, segmentCount);
+    return getBlockCount(blockByteSize, (int) segmentCount);
+  }
+
+  static SegmentHeader parse(int blockByteSize, byte[] header, long bodyBlockCount) {
+    long storedSegmentCount = Bits.packBigEndianToLong(header, 0);
+    if (storedSegmentCount < 0) {
+      throw new IllegalArgumentException("Incorrect segmented cipher header");
+    }
+    throwIfTooManySegments(blockByteSize, storedSegmentCount);
+    int segmentCount = (int) storedSegmentCount;
+    if (header.length != getBlockCount(blockByteSize, segmentCount) * blockByteSize) {
+      throw new IllegalArgumentException("Incorrect segmented cipher header");
+    }
+    long nominalSegmentBlockCount = Bits.packBigEndianToLong(header, Long.BYTES);
+
+    long[] segmentBlockCounts = new long[segmentCount];
+    long totalBlockCount = 0;
+    for (int k = 0; k < segmentCount; ++k) {
+      segmentBlockCounts[k] = Bits.packBigEndianToLong(header, PREFIX_BYTE_SIZE + k * Long.BYTES);
+      if (segmentBlockCounts[k] <= 0 || segmentBlockCounts[k] > bodyBlockCount - totalBlockCount) {
+        throw new IllegalArgumentException("Incorrect segmented cipher header");
+      }
+      totalBlockCount += segmentBlockCounts[k];
+    }
+    if (totalBlockCount != bodyBlockCount) {
+      throw new IllegalArgumentException("Incorrect segmented cipher header");
+    }
+
+    byte[] initVectors = new byte[segmentCount * blockByteSize];
+    System.arraycopy(header, header.length - initVectors.length, initVectors, 0, initVectors.length);
+    return new SegmentHeader(blockByteSize, nominalSegmentBlockCount, segmentBlockCounts, initVectors);
+  }
+
+
+  static int getPrefixBlockCount(int blockByteSize) {
+    return (PREFIX_BYTE_SIZE + blockByteSize - 1) / blockByteSize;
+  }
+
+  int getBlockCount() {
+    return getBlockCount(blockByteSize, segmentBlockCounts.length);
+  }
+
+  int getSegmentCount() {
+    return segmentBlockCounts.length;
+  }
+
+  long getSegmentFirstBlock(int segmentIdx) {
+    return segmentFirstBlocks[segmentIdx];
+  }
+
+  long getSegmentBlockCount(int segmentIdx) {
+    return segmentBlockCounts[segmentIdx];
+  }
+
+  // Zero if there are no segments (empty body of an unpadded message)
+  long getBodyBlockCount() {
+    int segmentCount = segmentBlockCounts.length;
+    return segmentCount == 0 ? 0 : segmentFirstBlocks[segmentCount - 1] + segmentBlockCounts[segmentCount - 1];
+  }
+
+  /** IVs of all segments, one block each; filled by the encrypting side */
+  byte[] getInitVectors() {
+    return initVectors;
+  }
+
+  byte[] getInitVector(int segmentIdx) {
+    byte[] initVector = new byte[blockByteSize];
+    System.arraycopy(initVectors, segmentIdx * blockByteSize, initVector, 0, blockByteSize);
+    return initVector;
+  }
+
+  byte[] toBytes() {
+    byte[] header = new byte[getBlockCount() * blockByteSize];
+    Bits.unpackLongToBigEndian(segmentBlockCounts.length, header, 0);
+    Bits.unpackLongToBigEndian(nominalSegmentBlockCount, header, Long.BYTES);
+    for (int k = 0; k < segmentBlockCounts.length; ++k) {
+      Bits.unpackLongToBigEndian(segmentBlockCounts[k], header, PREFIX_BYTE_SIZE + k * Long.BYTES);
+    }
+    System.arraycopy(initVectors, 0, header, header.length - initVectors.length, initVectors.length);
+    return header;
+  }
+
+  private static int getBlockCount(int blockByteSize, int segmentCount) {
+    int tableByteSize = PREFIX_BYTE_SIZE + segmentCount * Long.BYTES;
+    return (tableByteSize + blockByteSize - 1) / blockByteSize + segmentCount;
+  }
+
+  private static void throwIfTooManySegments(int blockByteSize, long segmentCount) {
+    if (segmentCount > (MAX_HEADER_BYTE_SIZE - 2L * PREFIX_BYTE_SIZE) / (Long.BYTES + blockByteSize)) {
+      throw new IllegalArgumentException("Too many segments, segment block count should be increased");
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package org.reminstant.cryptography.context;
+
+import org.reminstant.cryptography.Bits;
+import org.reminstant.cryptography.SymmetricCryptoSystem;
+
+import java.io.IOException;
+import java.math.BigInteger;
+
+/**
+ * Incremental encryptor/decryptor working with bounded buffers. Keeps the chaining state of the mode
+ * between calls, so data may come in pieces of any length. Not thread-safe.
+ */
+final class StreamingCipher {
+
+  @FunctionalInterface
+  interface Sink {
+    void accept(byte[] data, int offset, int length) throws IOException;
+  }
+
+  private final SymmetricCryptoSystem cryptoSystem;
+  private final Padding paddingMode;
+  private final BlockCipherMode cipherMode;
+  private final boolean isEncryption;
+  private final int blockByteSize;
+
+  private final byte[] buffer;
+  private int bufferedLength;
+  // decryption holds back the last block until the end of stream is known, as it carries the padding
+  private final byte[] pendingBlock;
+  private boolean hasPendingBlock;
+  private boolean isFinished;
+
+  // chaining state
+  private final byte[] prevCipher;
+  private final byte[] prevMsg;
+  private final byte[] tmpBlock;
+  private final byte[] keyStream;
+  private final CounterBlockGenerator counters;
+
+
+  StreamingCipher(SymmetricCryptoSystem cryptoSystem, Padding paddingMode, BlockCipherMode cipherMode,
+                  byte[] initVector, BigInteger delta, boolean isEncryption, int bufferBlockCount) {
+    this.cryptoSystem = cryptoSystem;
+    this.paddingMode = paddingMode;
+    this.cipherMode = cipherMode;
+    this.isEncryption = isEncryption;
+    this.blockByteSize = cryptoSystem.getBlockByteSize();
+
+    this.buffer = new byte[bufferBlockCount * blockByteSize];
+    this.pendingBlock = new byte[blockByteSize];
+
+    this.prevCipher = initVector == null ? null : initVector.clone();
+    this.prevMsg = new byte[blockByteSize];
+    this.tmpBlock = new byte[blockByteSize];
+    this.keyStream = switch (cipherMode) {
+      case OFB -> initVector.clone();
+      case CTR, RD -> new byte[buffer.length];
+      default -> null;
+    };
+    this.counters = switch (cipherMode) {
+      case CTR -> new CounterBlockGenerator(initVector, BigInteger.ONE);
+      case RD -> new CounterBlockGenerator(initVector, delta);
+      default -> null;
+    };
+  }
+
+
+  void update(byte[] data, int offset, int length, Sink sink) throws IOException {
+    throwIfFinished();
+    while (length > 0) {
+      int chunk = Math.min(length, buffer.length - bufferedLength);
+      System.arraycopy(data, offset, buffer, bufferedLength, chunk);
+      bufferedLength += chunk;
+      offset += chunk;
+      length -= chunk;
+
+      if (bufferedLength == buffer.length) {
+        int blockCount = bufferedLength / blockByteSize;
+        transform(buffer, blockCount);
+        emit(blockCount, sink);
+        bufferedLength = 0;
+      }
+    }
+  }
+
+  void doFinal(Sink sink) throws IOException {
+    throwIfFinished();
+    isFinished = true;
+
+    int blockCount = bufferedLength / blockByteSize;
+    int tailLength = bufferedLength % blockByteSize;
+
+    if (isEncryption) {
+      if (tailLength != 0 || paddingMode.isSetAlways()) {
+        if (paddingMode.equals(Padding.NONE)) {
+          throw new IllegalArgumentException("Given message requires padding that none-padding mode cannot provide");
+        }
+        paddingMode.setPadding(buffer, blockCount * blockByteSize, blockByteSize, tailLength);
+        blockCount++;
+      }
+      transform(buffer, blockCount);
+      sink.accept(buffer, 0, blockCount * blockByteSize);
+      return;
+    }
+
+    if (tailLength != 0) {
+      throw new IllegalArgumentException("Incorrect cipher size");
+    }
+    transform(buffer, blockCount);
+    emit(blockCount, sink);
+    if (hasPendingBlock) {
+      int paddingLength = paddingMode.getPaddingLength(pendingBlock, 0, blockByteSize);
+      sink.accept(pendingBlock, 0, blockByteSize - paddingLength);
+      hasPendingBlock = false;
+    }
+  }
+
+  private void emit(int blockCount, Sink sink) throws IOException {
+    if (isEncryption) {
+      sink.accept(buffer, 0, blockCount * blockByteSize);
+      return;
+    }
+    if (blockCount == 0) {
+      return;
+    }
+
+    if (hasPendingBlock) {
+      sink.accept(pendingBlock, 0, blockByteSize);
+    }
+    sink.accept(buffer, 0, (blockCount - 1) * blockByteSize);
+    System.arraycopy(buffer, (blockCount - 1) * blockByteSize, pendingBlock, 0, blockByteSize);
+    hasPendingBlock = true;
+  }
+
+  // transforms blockCount blocks at the start of data in place, continuing the chain
+  void transform(byte[] data, int blockCount) {
+    if (blockCount == 0) {
+      return;
+    }
+
+    switch (cipherMode) {
+      case ECB -> {
+        if (isEncryption) {
+          cryptoSystem.encryptBlocks(data, 0, data, 0, blockCount);
+        } else {
+          cryptoSystem.decryptBlocks(data, 0, data, 0, blockCount);
+        }
+      }
+      case CTR, RD -> {
+        for (int k = 0; k < blockCount; ++k) {
+          counters.next(keyStream, k * blockByteSize);
+        }
+        cryptoSystem.encryptBlocks(keyStream, 0, keyStream, 0, blockCount);
+        Bits.xorInPlace(data, 0, keyStream, 0, blockCount * blockByteSize);
+      }
+      default -> {
+        for (int k = 0; k < blockCount; ++k) {
+          transformChained(data, k * blockByteSize);
+        }
+      }
+    }
+  }
+
+  private void transformChained(byte[] data, int offset) {
+    switch (cipherMode) {
+      case CBC -> {
+        if (isEncryption) {
+          Bits.xorInPlace(data, offset, prevCipher, 0, blockByteSize);
+          cryptoSystem.encryptBlock(data, offset, data, offset);
+          System.arraycopy(data, offset, prevCipher, 0, blockByteSize);
+        } else {
+          System.arraycopy(data, offset, tmpBlock, 0, blockByteSize);
+          cryptoSystem.decryptBlock(data, offset, data, offset);
+          Bits.xorInPlace(data, offset, prevCipher, 0, blockByteSize);
+          System.arraycopy(tmpBlock, 0, prevCipher, 0, blockByteSize);
+        }
+      }
+      case PCBC -> {
+        if (isEncryption) {
+          System.arraycopy(data, offset, tmpBlock, 0, blockByteSize);
+          Bits.xorInPlace(data, offset, prevMsg, 0, blockByteSize);
+          Bits.xorInPlace(data, offset, prevCipher, 0, blockByteSize);
+          cryptoSystem.encryptBlock(data, offset, data, offset);
+          System.arraycopy(tmpBlock, 0, prevMsg, 0, blockByteSize);
+          System.arraycopy(data, offset, prevCipher, 0, blockByteSize);
+        } else {
+          System.arraycopy(data, offset, tmpBlock, 0, blockByteSize);
+          cryptoSystem.decryptBlock(data, offset, data, offset);
+          Bits.xorInPlace(data, offset, prevCipher, 0, blockByteSize);
+          Bits.xorInPlace(data, offset, prevMsg, 0, blockByteSize);
+          System.arraycopy(data, offset, prevMsg, 0, blockByteSize);
+          System.arraycopy(tmpBlock, 0, prevCipher, 0, blockByteSize);
+        }
+      }
+      case CFB -> {
+        cryptoSystem.encryptBlock(prevCipher, 0, tmpBlock, 0);
+        if (isEncryption) {
+          Bits.xorInPlace(data, offset, tmpBlock, 0, blockByteSize);
+          System.arraycopy(data, offset, prevCipher, 0, blockByteSize);
+        } else {
+          System.arraycopy(data, offset, prevCipher, 0, blockByteSize);
+          Bits.xorInPlace(data, offset, tmpBlock, 0, blockByteSize);
+        }
+      }
+      case OFB -> {
+        cryptoSystem.encryptBlock(keyStream, 0, keyStream, 0);
+        Bits.xorInPlace(data, offset, keyStream, 0, blockByteSize);
+      }
+      default -> throw new IllegalStateException("Unexpected chained mode " + cipherMode);
+    }
+  }
+
+  private void throwIfFinished() {
+    if (isFinished) {
+      throw new IllegalStateException("Stream has already been finished");
+    }
+  }
+}
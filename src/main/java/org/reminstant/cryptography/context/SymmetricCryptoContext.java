@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
@@ -18,8 +19,11 @@ import java.nio.file.Path;
 import java.security.SecureRandom;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.function.LongConsumer;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
 
 import static java.nio.file.StandardOpenOption.*;
 
@@ -27,11 +31,25 @@ public final class SymmetricCryptoContext {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(SymmetricCryptoContext.class);
   private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
-  private static final ExecutorService DEFAULT_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+  private static final int DEFAULT_CHUNK_BLOCK_COUNT = 256;
+  private static final int MAPPING_WINDOW_BYTE_SIZE = 1 << 26;
+  private static final int MAX_ARRAY_BYTE_SIZE = Integer.MAX_VALUE - 8;
 
   private static final Random random = new SecureRandom();
 
   public static final String RD_PARAM = "RandomDelta";
+  /** Boolean; if true, file-to-file operations access both files via memory mapping */
+  public static final String MAPPED_FILE_IO_PARAM = "MappedFileIO";
+  /** Positive Integer; count of consecutive blocks a parallel worker takes at once */
+  public static final String CHUNK_BLOCK_COUNT_PARAM = "ChunkBlockCount";
+  // Positive Integer; turns on the segmented cipher format (CBC, PCBC, CFB and OFB only), see SegmentHeader
+  public static final String SEGMENT_BLOCK_COUNT_PARAM = "SegmentBlockCount";
+  // ExecutionStrategy or a custom ExecutorService; VIRTUAL_THREADS by default
+  public static final String EXECUTION_STRATEGY_PARAM = "ExecutionStrategy";
+  // Non-negative Integer; work of at most this many blocks runs on the caller thread, ChunkBlockCount by default
+  public static final String INLINE_BLOCK_COUNT_PARAM = "InlineBlockCount";
+  // CryptoMetrics listener of the hot path; off by default
+  public static final String METRICS_PARAM = "Metrics";
 
 
   private final ExecutorService executor;
@@ -41,6 +59,11 @@ public final class SymmetricCryptoContext {
   private final int blockByteSize;
   private final byte[] initVector;
   private final BigInteger counterMask;
+  private final boolean isMappedFileIO;
+  private final int chunkBlockCount;
+  private final int segmentBlockCount; // 0 if the segmented format is off
+  private final int inlineBlockCount;
+  private final CryptoMetrics metrics; // null if metrics are off
   private final Map<String, Object> extraConfig;
 
 
@@ -119,7 +142,13 @@ public final class SymmetricCryptoContext {
     Objects.requireNonNull(cipherMode, "CryptoContext requires non-null cipherMode");
     Objects.requireNonNull(extraConfig, "CryptoContext requires non-null extraConfig");
 
-    this.cryptoSystem = cryptoSystem;
+    Object metricsParam = extraConfig.getOrDefault(METRICS_PARAM, null);
+    if (metricsParam != null && !(metricsParam instanceof CryptoMetrics)) {
+      throw new IllegalArgumentException(String.format("'%s' param must be CryptoMetrics", METRICS_PARAM));
+    }
+    this.metrics = (CryptoMetrics) metricsParam;
+
+    this.cryptoSystem = metrics == null ? cryptoSystem : new MeteredCryptoSystem(cryptoSystem, metrics);
     this.paddingMode = paddingMode;
     this.encryptionMode = cipherMode;
     this.initVector = initVector;
@@ -150,7 +179,47 @@ public final class SymmetricCryptoContext {
       }
     }
 
-    this.executor = DEFAULT_EXECUTOR;
+    Object mappedFileIO = extraConfig.getOrDefault(MAPPED_FILE_IO_PARAM, Boolean.FALSE);
+    if (!(mappedFileIO instanceof Boolean)) {
+      throw new IllegalArgumentException(String.format("'%s' param must be Boolean", MAPPED_FILE_IO_PARAM));
+    }
+    this.isMappedFileIO = (Boolean) mappedFileIO;
+
+    Object chunkBlockCountParam = extraConfig.getOrDefault(CHUNK_BLOCK_COUNT_PARAM, DEFAULT_CHUNK_BLOCK_COUNT);
+    if (!(chunkBlockCountParam instanceof Integer chunkSize) || chunkSize <= 0) {
+      throw new IllegalArgumentException(String.format("'%s' param must be positive Integer", CHUNK_BLOCK_COUNT_PARAM));
+    }
+    this.chunkBlockCount = chunkSize;
+
+    Object segmentBlockCountParam = extraConfig.getOrDefault(SEGMENT_BLOCK_COUNT_PARAM, null);
+    if (segmentBlockCountParam == null) {
+      this.segmentBlockCount = 0;
+    } else if (!(segmentBlockCountParam instanceof Integer segmentSize) || segmentSize <= 0) {
+      throw new IllegalArgumentException(String.format("'%s' param must be positive Integer", SEGMENT_BLOCK_COUNT_PARAM));
+    } else if (!List.of(BlockCipherMode.CBC, BlockCipherMode.PCBC,
+        BlockCipherMode.CFB, BlockCipherMode.OFB).contains(cipherMode)) {
+      throw new IllegalArgumentException(
+          String.format("'%s' param is applicable to CBC, PCBC, CFB and OFB modes only", SEGMENT_BLOCK_COUNT_PARAM));
+    } else {
+      this.segmentBlockCount = segmentSize;
+    }
+
+    Object executionParam = extraConfig.getOrDefault(EXECUTION_STRATEGY_PARAM, ExecutionStrategy.VIRTUAL_THREADS);
+    if (executionParam instanceof ExecutionStrategy strategy) {
+      this.executor = strategy.getExecutor();
+    } else if (executionParam instanceof ExecutorService customExecutor) {
+      this.executor = customExecutor;
+    } else {
+      throw new IllegalArgumentException(
+          String.format("'%s' param must be ExecutionStrategy or ExecutorService", EXECUTION_STRATEGY_PARAM));
+    }
+
+    Object inlineBlockCountParam = extraConfig.getOrDefault(INLINE_BLOCK_COUNT_PARAM, chunkBlockCount);
+    if (!(inlineBlockCountParam instanceof Integer inlineSize) || inlineSize < 0) {
+      throw new IllegalArgumentException(
+          String.format("'%s' param must be non-negative Integer", INLINE_BLOCK_COUNT_PARAM));
+    }
+    this.inlineBlockCount = inlineSize;
   }
 
   public SymmetricCryptoContext(SymmetricCryptoSystem cryptoSystem, Padding paddingMode,
@@ -198,58 +267,156 @@ public final class SymmetricCryptoContext {
     decryptInternal(inputFilename, outputFilename, null);
   }
 
+  /**
+   * Encrypts the remaining bytes of src into dst starting at its position; both buffers may be heap or direct.
+   * Positions of both buffers are advanced. Returns the count of bytes written to dst
+   */
+  public int encrypt(ByteBuffer src, ByteBuffer dst) {
+    return encryptInternal(src, dst);
+  }
+
+  /**
+   * Decrypts the remaining bytes of src into dst starting at its position; both buffers may be heap or direct.
+   * dst must have at least src.remaining() bytes remaining. Positions of both buffers are advanced.
+   * Returns the count of bytes written to dst
+   */
+  public int decrypt(ByteBuffer src, ByteBuffer dst) {
+    return decryptInternal(src, dst);
+  }
+
+  /** Encrypts into off-heap memory, so neither the message nor the cipher is limited by 2GB */
+  public OffHeapData encryptOffHeap(OffHeapData message) {
+    return encryptOffHeapInternal(message, null);
+  }
+
+  /** Encrypts the file into off-heap memory, so the cipher is not limited by 2GB */
+  public OffHeapData encryptOffHeap(String inputFilename) throws IOException {
+    return encryptOffHeapInternal(inputFilename, null);
+  }
+
+  /** Decrypts into off-heap memory, so neither the cipher nor the message is limited by 2GB */
+  public OffHeapData decryptOffHeap(OffHeapData cipher) {
+    return decryptOffHeapInternal(cipher, null);
+  }
+
+  /** Decrypts the file into off-heap memory, so the message is not limited by 2GB */
+  public OffHeapData decryptOffHeap(String inputFilename) throws IOException {
+    return decryptOffHeapInternal(inputFilename, null);
+  }
+
+  /** Returns a stream that encrypts written data into out; it must be closed to write the last block */
+  public CryptoOutputStream wrapForEncryption(OutputStream out) {
+    return new CryptoOutputStream(Objects.requireNonNull(out), newStreamingCipher(true));
+  }
+
+  /** Returns a stream that decrypts written data into out; it must be closed to write the last block */
+  public CryptoOutputStream wrapForDecryption(OutputStream out) {
+    return new CryptoOutputStream(Objects.requireNonNull(out), newStreamingCipher(false));
+  }
+
+  /** Returns a stream that reads data from in and encrypts it */
+  public CryptoInputStream wrapForEncryption(InputStream in) {
+    return new CryptoInputStream(Objects.requireNonNull(in), newStreamingCipher(true));
+  }
+
+  /** Returns a stream that reads data from in and decrypts it */
+  public CryptoInputStream wrapForDecryption(InputStream in) {
+    return new CryptoInputStream(Objects.requireNonNull(in), newStreamingCipher(false));
+  }
+
+  /**
+   * Encrypts independent messages by CBC, the i-th one from the i-th IV (context IV is not used).
+   * Chains of different messages are interleaved, so throughput scales with the number of messages
+   */
+  public List<byte[]> encryptBatch(List<byte[]> messages, List<byte[]> initVectors) {
+    return encryptBatchInternal(messages, initVectors);
+  }
+
+  /** Decrypts independent CBC ciphers produced by {@link #encryptBatch} with the same IVs */
+  public List<byte[]> decryptBatch(List<byte[]> ciphers, List<byte[]> initVectors) {
+    return decryptBatchInternal(ciphers, initVectors);
+  }
+
   // TODO: perhaps public methods need javadoc
   public CryptoProgress<byte[]> encryptAsync(byte[] message) {
     CryptoProgress<byte[]> progress = new CryptoProgress<>();
-    progress.setFuture(ChainableFuture.supplyWeaklyAsync(() -> encryptInternal(message, progress)));
+    progress.setFuture(ChainableFuture.supplyWeaklyAsync(() -> encryptInternal(message, progress), executor));
     return progress;
   }
 
   public CryptoProgress<byte[]> encryptAsync(String inputFilename) {
     CryptoProgress<byte[]> progress = new CryptoProgress<>();
-    progress.setFuture(ChainableFuture.supplyWeaklyAsync(() -> encryptInternal(inputFilename, progress)));
+    progress.setFuture(ChainableFuture.supplyWeaklyAsync(() -> encryptInternal(inputFilename, progress), executor));
     return progress;
   }
 
   public CryptoProgress<Void> encryptAsync(byte[] message, String outputFilename) {
     CryptoProgress<Void> progress = new CryptoProgress<>();
     progress.setFuture(ChainableFuture
-        .runWeaklyAsync(() -> encryptInternal(message, outputFilename, progress)));
+        .runWeaklyAsync(() -> encryptInternal(message, outputFilename, progress), executor));
     return progress;
   }
 
   public CryptoProgress<Void> encryptAsync(String inputFilename, String outputFilename) {
     CryptoProgress<Void> progress = new CryptoProgress<>();
     progress.setFuture(ChainableFuture
-        .runWeaklyAsync(() -> encryptInternal(inputFilename, outputFilename, progress)));
+        .runWeaklyAsync(() -> encryptInternal(inputFilename, outputFilename, progress), executor));
     return progress;
   }
 
   public CryptoProgress<byte[]> decryptAsync(byte[] cipher) {
     CryptoProgress<byte[]> progress = new CryptoProgress<>();
     progress.setFuture(ChainableFuture
-        .supplyWeaklyAsync(() -> decryptInternal(cipher, progress)));
+        .supplyWeaklyAsync(() -> decryptInternal(cipher, progress), executor));
     return progress;
   }
 
   public CryptoProgress<byte[]> decryptAsync(String inputFilename) {
     CryptoProgress<byte[]> progress = new CryptoProgress<>();
     progress.setFuture(ChainableFuture
-        .supplyWeaklyAsync(() -> decryptInternal(inputFilename, progress)));
+        .supplyWeaklyAsync(() -> decryptInternal(inputFilename, progress), executor));
     return progress;
   }
 
   public CryptoProgress<Void> decryptAsync(byte[] message, String outputFilename) {
     CryptoProgress<Void> progress = new CryptoProgress<>();
     progress.setFuture(ChainableFuture
-        .runWeaklyAsync(() -> decryptInternal(message, outputFilename, progress)));
+        .runWeaklyAsync(() -> decryptInternal(message, outputFilename, progress), executor));
     return progress;
   }
 
   public CryptoProgress<Void> decryptAsync(String inputFilename, String outputFilename) {
     CryptoProgress<Void> progress = new CryptoProgress<>();
     progress.setFuture(ChainableFuture
-        .runWeaklyAsync(() -> decryptInternal(inputFilename, outputFilename, progress)));
+        .runWeaklyAsync(() -> decryptInternal(inputFilename, outputFilename, progress), executor));
+    return progress;
+  }
+
+  public CryptoProgress<OffHeapData> encryptOffHeapAsync(OffHeapData message) {
+    CryptoProgress<OffHeapData> progress = new CryptoProgress<>();
+    progress.setFuture(ChainableFuture
+        .supplyWeaklyAsync(() -> encryptOffHeapInternal(message, progress), executor));
+    return progress;
+  }
+
+  public CryptoProgress<OffHeapData> encryptOffHeapAsync(String inputFilename) {
+    CryptoProgress<OffHeapData> progress = new CryptoProgress<>();
+    progress.setFuture(ChainableFuture
+        .supplyWeaklyAsync(() -> encryptOffHeapInternal(inputFilename, progress), executor));
+    return progress;
+  }
+
+  public CryptoProgress<OffHeapData> decryptOffHeapAsync(OffHeapData cipher) {
+    CryptoProgress<OffHeapData> progress = new CryptoProgress<>();
+    progress.setFuture(ChainableFuture
+        .supplyWeaklyAsync(() -> decryptOffHeapInternal(cipher, progress), executor));
+    return progress;
+  }
+
+  public CryptoProgress<OffHeapData> decryptOffHeapAsync(String inputFilename) {
+    CryptoProgress<OffHeapData> progress = new CryptoProgress<>();
+    progress.setFuture(ChainableFuture
+        .supplyWeaklyAsync(() -> decryptOffHeapInternal(inputFilename, progress), executor));
     return progress;
   }
 
@@ -258,24 +425,22 @@ public final class SymmetricCryptoContext {
   // region --- internal encryption/decryption ---
 
   private byte[] encryptInternal(byte[] message, CryptoProgress<byte[]> progress) {
-    int blockCnt = (int) getCipherBlockCount(message.length);
-    List<byte[]> blockList = Arrays.asList(new byte[blockCnt][]);
+    long blockCnt = getCipherBlockCount(message.length);
+    ArrayCipherWriter cipherWriter = new ArrayCipherWriter(getEncryptedBlockCount(blockCnt));
     setupProgressIfPresent(progress, blockCnt);
-    encrypt(new ArrayDataReader(message), new ListCipherWriter(blockList), blockCnt, progress);
+    encrypt(new ArrayDataReader(message), cipherWriter, blockCnt, progress);
 
-    return convertBlockListToArray(blockList);
+    return cipherWriter.getResult();
   }
 
   private byte[] encryptInternal(String inputFilename, CryptoProgress<byte[]> progress) throws IOException {
     try (FileChannel input = FileChannel.open(Path.of(inputFilename), READ)) {
-      throwIfTooLargeFile(input.size());
-
-      int blockCnt = (int) getCipherBlockCount(input.size());
-      List<byte[]> blockList = Arrays.asList(new byte[blockCnt][]);
+      long blockCnt = getCipherBlockCount(input.size());
+      ArrayCipherWriter cipherWriter = new ArrayCipherWriter(getEncryptedBlockCount(blockCnt));
       setupProgressIfPresent(progress, blockCnt);
-      encrypt(new FileDataReader(input), new ListCipherWriter(blockList), blockCnt, progress);
+      encrypt(new FileDataReader(input), cipherWriter, blockCnt, progress);
 
-      return convertBlockListToArray(blockList);
+      return cipherWriter.getResult();
     } catch (UncheckedIOException ex) {
       throw ex.getCause();
     }
@@ -286,7 +451,8 @@ public final class SymmetricCryptoContext {
     try (FileChannel output = FileChannel.open(Path.of(outputFilename), CREATE, WRITE)) {
       long blockCnt = getCipherBlockCount(message.length);
       setupProgressIfPresent(progress, blockCnt);
-      encrypt(new ArrayDataReader(message), new FileCipherWriter(blockCnt, output), blockCnt, progress);
+      FileCipherWriter cipherWriter = new FileCipherWriter(getEncryptedBlockCount(blockCnt), output);
+      encrypt(new ArrayDataReader(message), cipherWriter, blockCnt, progress);
     } catch (UncheckedIOException ex) {
       throw ex.getCause();
     }
@@ -295,34 +461,39 @@ public final class SymmetricCryptoContext {
   private void encryptInternal(String inputFilename, String outputFilename,
                               CryptoProgress<Void> progress) throws IOException {
     try (FileChannel input = FileChannel.open(Path.of(inputFilename), READ);
-         FileChannel output = FileChannel.open(Path.of(outputFilename), CREATE, WRITE)) {
+         FileChannel output = FileChannel.open(Path.of(outputFilename), CREATE, READ, WRITE)) {
       long blockCnt = getCipherBlockCount(input.size());
       setupProgressIfPresent(progress, blockCnt);
-      encrypt(new FileDataReader(input), new FileCipherWriter(blockCnt, output), blockCnt, progress);
+      long cipherBlockCnt = getEncryptedBlockCount(blockCnt);
+      if (isMappedFileIO) {
+        encrypt(new MappedFileDataReader(input), new MappedFileCipherWriter(cipherBlockCnt, output), blockCnt, progress);
+      } else {
+        encrypt(new FileDataReader(input), new FileCipherWriter(cipherBlockCnt, output), blockCnt, progress);
+      }
     } catch (UncheckedIOException ex) {
       throw ex.getCause();
     }
   }
 
   private byte[] decryptInternal(byte[] cipher, CryptoProgress<byte[]> progress) {
-    int blockCnt = (int) getMessageBlockCount(cipher.length);
-    List<byte[]> blockList = Arrays.asList(new byte[blockCnt][]);
+    ArrayDataReader cipherReader = new ArrayDataReader(cipher);
+    long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(cipher.length));
+    ArrayMessageWriter msgWriter = new ArrayMessageWriter(blockCnt);
     setupProgressIfPresent(progress, blockCnt);
-    decrypt(new ArrayDataReader(cipher), new ListMessageWriter(blockList), blockCnt, progress);
+    decrypt(cipherReader, msgWriter, blockCnt, progress);
 
-    return convertBlockListToArray(blockList);
+    return msgWriter.getResult();
   }
 
   private byte[] decryptInternal(String inputFilename, CryptoProgress<byte[]> progress) throws IOException {
     try (FileChannel input = FileChannel.open(Path.of(inputFilename), READ)) {
-      throwIfTooLargeFile(input.size());
-
-      int blockCnt = (int) getMessageBlockCount(input.size());
-      List<byte[]> blockList = Arrays.asList(new byte[blockCnt][]);
+      FileDataReader cipherReader = new FileDataReader(input);
+      long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(input.size()));
+      ArrayMessageWriter msgWriter = new ArrayMessageWriter(blockCnt);
       setupProgressIfPresent(progress, blockCnt);
-      decrypt(new FileDataReader(input), new ListMessageWriter(blockList), blockCnt, progress);
+      decrypt(cipherReader, msgWriter, blockCnt, progress);
 
-      return convertBlockListToArray(blockList);
+      return msgWriter.getResult();
     } catch (UncheckedIOException ex) {
       throw ex.getCause();
     }
@@ -331,32 +502,228 @@ public final class SymmetricCryptoContext {
   private void decryptInternal(byte[] cipher, String outputFilename,
                               CryptoProgress<Void> progress) throws IOException {
     try (FileChannel output = FileChannel.open(Path.of(outputFilename), CREATE, WRITE)) {
-      long blockCnt = getMessageBlockCount(cipher.length);
+      ArrayDataReader cipherReader = new ArrayDataReader(cipher);
+      long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(cipher.length));
       setupProgressIfPresent(progress, blockCnt);
-      decrypt(new ArrayDataReader(cipher), new FileMessageWriter(blockCnt, output), blockCnt, progress);
+      decrypt(cipherReader, new FileMessageWriter(blockCnt, output), blockCnt, progress);
     } catch (UncheckedIOException ex) {
       throw ex.getCause();
     }
   }
 
+  private int encryptInternal(ByteBuffer src, ByteBuffer dst) {
+    long blockCnt = getCipherBlockCount(src.remaining());
+    long cipherBlockCnt = getEncryptedBlockCount(blockCnt);
+    if (cipherBlockCnt * blockByteSize > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Message is too large to be encrypted into ByteBuffer");
+    }
+    int cipherLength = (int) (cipherBlockCnt * blockByteSize);
+    if (dst.remaining() < cipherLength) {
+      throw new IllegalArgumentException(
+          String.format("Destination buffer has %d bytes remaining, %d required", dst.remaining(), cipherLength));
+    }
+
+    encrypt(new ByteBufferDataReader(src.slice()), new ByteBufferCipherWriter(dst.slice()), blockCnt, null);
+
+    src.position(src.limit());
+    dst.position(dst.position() + cipherLength);
+    return cipherLength;
+  }
+
+  private int decryptInternal(ByteBuffer src, ByteBuffer dst) {
+    ByteBufferDataReader cipherReader = new ByteBufferDataReader(src.slice());
+    long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(src.remaining()));
+    if (dst.remaining() < blockCnt * blockByteSize) {
+      throw new IllegalArgumentException(String.format("Destination buffer has %d bytes remaining, %d required",
+          dst.remaining(), blockCnt * blockByteSize));
+    }
+
+    ByteBufferMessageWriter msgWriter = new ByteBufferMessageWriter(blockCnt, dst.slice());
+    decrypt(cipherReader, msgWriter, blockCnt, null);
+
+    src.position(src.limit());
+    dst.position(dst.position() + msgWriter.getWrittenLength());
+    return msgWriter.getWrittenLength();
+  }
+
   private void decryptInternal(String inputFilename, String outputFilename,
                               CryptoProgress<Void> progress) throws IOException {
     try (FileChannel input = FileChannel.open(Path.of(inputFilename), READ);
-         FileChannel output = FileChannel.open(Path.of(outputFilename), CREATE, WRITE)) {
-      long blockCnt = getMessageBlockCount(input.size());
+         FileChannel output = FileChannel.open(Path.of(outputFilename), CREATE, READ, WRITE)) {
+      DataReader cipherReader = isMappedFileIO ? new MappedFileDataReader(input) : new FileDataReader(input);
+      long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(input.size()));
+      setupProgressIfPresent(progress, blockCnt);
+      if (isMappedFileIO) {
+        decrypt(cipherReader, new MappedFileMessageWriter(blockCnt, output), blockCnt, progress);
+      } else {
+        decrypt(cipherReader, new FileMessageWriter(blockCnt, output), blockCnt, progress);
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  private OffHeapData encryptOffHeapInternal(OffHeapData message, CryptoProgress<OffHeapData> progress) {
+    long blockCnt = getCipherBlockCount(message.size());
+    OffHeapData cipher = OffHeapData.allocate(getEncryptedBlockCount(blockCnt) * blockByteSize);
+    setupProgressIfPresent(progress, blockCnt);
+    encrypt(new OffHeapDataReader(message), new OffHeapCipherWriter(cipher), blockCnt, progress);
+
+    return cipher;
+  }
+
+  private OffHeapData encryptOffHeapInternal(String inputFilename,
+                                             CryptoProgress<OffHeapData> progress) throws IOException {
+    try (FileChannel input = FileChannel.open(Path.of(inputFilename), READ)) {
+      DataReader msgReader = isMappedFileIO ? new MappedFileDataReader(input) : new FileDataReader(input);
+      long blockCnt = getCipherBlockCount(input.size());
+      OffHeapData cipher = OffHeapData.allocate(getEncryptedBlockCount(blockCnt) * blockByteSize);
       setupProgressIfPresent(progress, blockCnt);
-      decrypt(new FileDataReader(input), new FileMessageWriter(blockCnt, output), blockCnt, progress);
+      encrypt(msgReader, new OffHeapCipherWriter(cipher), blockCnt, progress);
+
+      return cipher;
     } catch (UncheckedIOException ex) {
       throw ex.getCause();
     }
   }
 
+  private OffHeapData decryptOffHeapInternal(OffHeapData cipher, CryptoProgress<OffHeapData> progress) {
+    OffHeapDataReader cipherReader = new OffHeapDataReader(cipher);
+    long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(cipher.size()));
+    OffHeapMessageWriter msgWriter = new OffHeapMessageWriter(blockCnt);
+    setupProgressIfPresent(progress, blockCnt);
+    decrypt(cipherReader, msgWriter, blockCnt, progress);
+
+    return msgWriter.getResult();
+  }
+
+  private OffHeapData decryptOffHeapInternal(String inputFilename,
+                                             CryptoProgress<OffHeapData> progress) throws IOException {
+    try (FileChannel input = FileChannel.open(Path.of(inputFilename), READ)) {
+      DataReader cipherReader = isMappedFileIO ? new MappedFileDataReader(input) : new FileDataReader(input);
+      long blockCnt = getDecryptedBlockCount(cipherReader, getMessageBlockCount(input.size()));
+      OffHeapMessageWriter msgWriter = new OffHeapMessageWriter(blockCnt);
+      setupProgressIfPresent(progress, blockCnt);
+      decrypt(cipherReader, msgWriter, blockCnt, progress);
+
+      return msgWriter.getResult();
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
+    }
+  }
+
+  // Workers take groups of messages and advance the chains of a group together:
+  // each step encrypts the next block of every unfinished chain of the group with one encryptBlocks call
+  private List<byte[]> encryptBatchInternal(List<byte[]> messages, List<byte[]> initVectors) {
+    throwIfInvalidBatch(messages, initVectors);
+    byte[][] ciphers = new byte[messages.size()][];
+    for (int m = 0; m < ciphers.length; ++m) {
+      ciphers[m] = new byte[getResultArrayLength(getCipherBlockCount(messages.get(m).length))];
+    }
+
+    operateParallel(maxLaneCount -> {
+      byte[] blocks = new byte[maxLaneCount * blockByteSize];
+      int[] laneMessages = new int[maxLaneCount];
+      return (firstMsgIdx, msgCount) -> {
+        for (int blockOffset = 0; ; blockOffset += blockByteSize) {
+          int laneCount = 0;
+          for (int m = (int) firstMsgIdx; m < firstMsgIdx + msgCount; ++m) {
+            if (blockOffset >= ciphers[m].length) {
+              continue;
+            }
+            byte[] message = messages.get(m);
+            int laneOffset = laneCount * blockByteSize;
+            int dataLength = Math.clamp(message.length - blockOffset, 0, blockByteSize);
+            System.arraycopy(message, blockOffset, blocks, laneOffset, dataLength);
+            if (dataLength < blockByteSize) {
+              paddingMode.setPadding(blocks, laneOffset, blockByteSize, dataLength);
+            }
+            if (blockOffset == 0) {
+              Bits.xorInPlace(blocks, laneOffset, initVectors.get(m), 0, blockByteSize);
+            } else {
+              Bits.xorInPlace(blocks, laneOffset, ciphers[m], blockOffset - blockByteSize, blockByteSize);
+            }
+            laneMessages[laneCount++] = m;
+          }
+          if (laneCount == 0) {
+            break;
+          }
+
+          cryptoSystem.encryptBlocks(blocks, 0, blocks, 0, laneCount);
+          for (int lane = 0; lane < laneCount; ++lane) {
+            System.arraycopy(blocks, lane * blockByteSize, ciphers[laneMessages[lane]], blockOffset, blockByteSize);
+          }
+        }
+      };
+    }, messages.size(), getBatchLaneCount(messages.size()), getTotalBlockCount(Arrays.asList(ciphers)));
+
+    return Arrays.asList(ciphers);
+  }
+
+  private List<byte[]> decryptBatchInternal(List<byte[]> ciphers, List<byte[]> initVectors) {
+    throwIfInvalidBatch(ciphers, initVectors);
+    byte[][] messages = new byte[ciphers.size()][];
+    for (int m = 0; m < messages.length; ++m) {
+      messages[m] = new byte[getResultArrayLength(getMessageBlockCount(ciphers.get(m).length))];
+    }
+
+    operateParallel(maxLaneCount -> {
+      byte[] blocks = new byte[maxLaneCount * blockByteSize];
+      int[] laneMessages = new int[maxLaneCount];
+      return (firstMsgIdx, msgCount) -> {
+        for (int blockOffset = 0; ; blockOffset += blockByteSize) {
+          int laneCount = 0;
+          for (int m = (int) firstMsgIdx; m < firstMsgIdx + msgCount; ++m) {
+            if (blockOffset < messages[m].length) {
+              System.arraycopy(ciphers.get(m), blockOffset, blocks, laneCount * blockByteSize, blockByteSize);
+              laneMessages[laneCount++] = m;
+            }
+          }
+          if (laneCount == 0) {
+            break;
+          }
+
+          cryptoSystem.decryptBlocks(blocks, 0, blocks, 0, laneCount);
+          for (int lane = 0; lane < laneCount; ++lane) {
+            int m = laneMessages[lane];
+            int laneOffset = lane * blockByteSize;
+            if (blockOffset == 0) {
+              Bits.xorInPlace(blocks, laneOffset, initVectors.get(m), 0, blockByteSize);
+            } else {
+              Bits.xorInPlace(blocks, laneOffset, ciphers.get(m), blockOffset - blockByteSize, blockByteSize);
+            }
+            System.arraycopy(blocks, laneOffset, messages[m], blockOffset, blockByteSize);
+          }
+        }
+      };
+    }, ciphers.size(), getBatchLaneCount(ciphers.size()), getTotalBlockCount(ciphers));
+
+    for (int m = 0; m < messages.length; ++m) {
+      if (messages[m].length > 0) {
+        int lastBlockOffset = messages[m].length - blockByteSize;
+        int paddingLength = paddingMode.getPaddingLength(messages[m], lastBlockOffset, blockByteSize);
+        if (paddingLength != 0) {
+          messages[m] = Arrays.copyOf(messages[m], messages[m].length - paddingLength);
+        }
+      }
+    }
+    return Arrays.asList(messages);
+  }
+
   // endregion
 
   // region --- Modes of encryption/decryption methods ---
 
   private void encrypt(DataReader msgReader, DataWriter cipherWriter,
                        long blockCount, CryptoProgress<?> progress) {
+    if (metrics != null) {
+      msgReader = new MeteredDataReader(msgReader);
+      cipherWriter = new MeteredDataWriter(cipherWriter);
+    }
+    if (segmentBlockCount != 0) {
+      encryptSegmented(msgReader, cipherWriter, blockCount, progress);
+      return;
+    }
     BigInteger delta = (BigInteger) extraConfig.getOrDefault(RD_PARAM, null);
     switch (encryptionMode) {
       case ECB -> encryptByECB(msgReader, cipherWriter, blockCount, progress);
@@ -371,6 +738,14 @@ public final class SymmetricCryptoContext {
 
   private void decrypt(DataReader cipherReader, DataWriter msgWriter,
                        long blockCount, CryptoProgress<?> progress) {
+    if (metrics != null) {
+      cipherReader = new MeteredDataReader(cipherReader);
+      msgWriter = new MeteredDataWriter(msgWriter);
+    }
+    if (segmentBlockCount != 0) {
+      decryptSegmented(cipherReader, msgWriter, blockCount, progress);
+      return;
+    }
     BigInteger delta = (BigInteger) extraConfig.getOrDefault(RD_PARAM, null);
     switch (encryptionMode) {
       case ECB -> decryptByECB(cipherReader, msgWriter, blockCount, progress);
@@ -387,103 +762,138 @@ public final class SymmetricCryptoContext {
 
   private void encryptByECB(DataReader msgReader, DataWriter cipherWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    operateParallel(i -> {
-      cipherWriter.writeBlock(i, cryptoSystem.encrypt(msgReader.readBlock(i)));
-      incrementProgressIfPresent(progress);
+    operateParallel(maxChunk -> {
+      byte[] blocks = new byte[maxChunk * blockByteSize];
+      return (i, count) -> {
+        msgReader.readBlocks(i, count, blocks, 0);
+        cryptoSystem.encryptBlocks(blocks, 0, blocks, 0, count);
+        cipherWriter.writeBlocks(i, count, blocks, 0);
+        addProgressIfPresent(progress, count);
+      };
     }, blockCount);
   }
 
   private void decryptByECB(DataReader cipherReader, DataWriter msgWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    operateParallel(i -> {
-      msgWriter.writeBlock(i, cryptoSystem.decrypt(cipherReader.readBlock(i)));
-      incrementProgressIfPresent(progress);
+    operateParallel(maxChunk -> {
+      byte[] blocks = new byte[maxChunk * blockByteSize];
+      return (i, count) -> {
+        cipherReader.readBlocks(i, count, blocks, 0);
+        cryptoSystem.decryptBlocks(blocks, 0, blocks, 0, count);
+        msgWriter.writeBlocks(i, count, blocks, 0);
+        addProgressIfPresent(progress, count);
+      };
     }, blockCount);
   }
 
   private void encryptByCBC(DataReader msgReader, DataWriter cipherWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    byte[] prevCipher = initVector;
+    byte[] block = new byte[blockByteSize];
+    byte[] prevCipher = initVector.clone();
     for (long i = 0; i < blockCount; ++i) {
-      byte[] msg = msgReader.readBlock(i);
-      byte[] cipher = cryptoSystem.encrypt(Bits.xor(msg, prevCipher));
-      cipherWriter.writeBlock(i, cipher);
-      prevCipher = cipher;
-      incrementProgressIfPresent(progress);
+      msgReader.readBlock(i, block);
+      Bits.xorInPlace(block, 0, prevCipher, 0, blockByteSize);
+      cryptoSystem.encryptBlock(block, 0, prevCipher, 0);
+      cipherWriter.writeBlock(i, prevCipher);
+      addSequentialProgressIfPresent(progress, i, blockCount);
     }
   }
 
   private void decryptByCBC(DataReader cipherReader, DataWriter msgWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    operateParallel(i -> {
-      byte[] prevCipher = i > 0 ? cipherReader.readBlock(i - 1) : initVector;
-      byte[] cipher = cipherReader.readBlock(i);
-      byte[] message = Bits.xor(cryptoSystem.decrypt(cipher), prevCipher);
-      msgWriter.writeBlock(i, message);
-      incrementProgressIfPresent(progress);
+    operateParallel(maxChunk -> {
+      byte[] ciphers = new byte[(maxChunk + 1) * blockByteSize];
+      byte[] msgs = new byte[maxChunk * blockByteSize];
+      return (i, count) -> {
+        readBlocksWithPrev(cipherReader, i, count, ciphers);
+        cryptoSystem.decryptBlocks(ciphers, blockByteSize, msgs, 0, count);
+        Bits.xorInPlace(msgs, 0, ciphers, 0, count * blockByteSize);
+        msgWriter.writeBlocks(i, count, msgs, 0);
+        addProgressIfPresent(progress, count);
+      };
     }, blockCount);
   }
 
   private void encryptByPCBC(DataReader msgReader, DataWriter cipherWriter,
                              long blockCount, CryptoProgress<?> progress) {
-    byte[] prevCipher = initVector;
+    byte[] msg = new byte[blockByteSize];
     byte[] prevMsg = new byte[blockByteSize];
+    byte[] prevCipher = initVector.clone();
     for (long i = 0; i < blockCount; ++i) {
-      byte[] msg = msgReader.readBlock(i);
-      byte[] cipher = cryptoSystem.encrypt(Bits.xor(msg, Bits.xor(prevMsg, prevCipher)));
-      cipherWriter.writeBlock(i, cipher);
+      msgReader.readBlock(i, msg);
+      Bits.xorInPlace(prevCipher, 0, prevMsg, 0, blockByteSize);
+      Bits.xorInPlace(prevCipher, 0, msg, 0, blockByteSize);
+      cryptoSystem.encryptBlock(prevCipher, 0, prevCipher, 0);
+      cipherWriter.writeBlock(i, prevCipher);
+
+      byte[] tmp = prevMsg;
       prevMsg = msg;
-      prevCipher = cipher;
-      incrementProgressIfPresent(progress);
+      msg = tmp;
+      addSequentialProgressIfPresent(progress, i, blockCount);
     }
   }
 
   private void decryptByPCBC(DataReader cipherReader, DataWriter msgWriter,
                              long blockCount, CryptoProgress<?> progress) {
-    byte[] prevCipher = initVector;
+    byte[] cipher = new byte[blockByteSize];
+    byte[] prevCipher = initVector.clone();
+    byte[] msg = new byte[blockByteSize];
     byte[] prevMsg = new byte[blockByteSize];
     for (long i = 0; i < blockCount; ++i) {
-      byte[] cipher = cipherReader.readBlock(i);
-      byte[] msg = Bits.xor(cryptoSystem.decrypt(cipher), Bits.xor(prevCipher, prevMsg));
+      cipherReader.readBlock(i, cipher);
+      cryptoSystem.decryptBlock(cipher, 0, msg, 0);
+      Bits.xorInPlace(msg, 0, prevCipher, 0, blockByteSize);
+      Bits.xorInPlace(msg, 0, prevMsg, 0, blockByteSize);
       msgWriter.writeBlock(i, msg);
+
+      byte[] tmp = prevMsg;
       prevMsg = msg;
+      msg = tmp;
+      tmp = prevCipher;
       prevCipher = cipher;
-      incrementProgressIfPresent(progress);
+      cipher = tmp;
+      addSequentialProgressIfPresent(progress, i, blockCount);
     }
   }
 
   private void encryptByCFB(DataReader msgReader, DataWriter cipherWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    byte[] prevCipher = initVector;
+    byte[] block = new byte[blockByteSize];
+    byte[] prevCipher = initVector.clone();
     for (long i = 0; i < blockCount; ++i) {
-      byte[] msg = msgReader.readBlock(i);
-      byte[] cipher = Bits.xor(msg, cryptoSystem.encrypt(prevCipher));
-      cipherWriter.writeBlock(i, cipher);
-      prevCipher = cipher;
-      incrementProgressIfPresent(progress);
+      msgReader.readBlock(i, block);
+      cryptoSystem.encryptBlock(prevCipher, 0, prevCipher, 0);
+      Bits.xorInPlace(prevCipher, 0, block, 0, blockByteSize);
+      cipherWriter.writeBlock(i, prevCipher);
+      addSequentialProgressIfPresent(progress, i, blockCount);
     }
   }
 
   private void decryptByCFB(DataReader cipherReader, DataWriter msgWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    operateParallel(i -> {
-      byte[] prevCipher = i > 0 ? cipherReader.readBlock(i - 1) : initVector;
-      byte[] cipher = cipherReader.readBlock(i);
-      byte[] msg = Bits.xor(cipher, cryptoSystem.encrypt(prevCipher));
-      msgWriter.writeBlock(i, msg);
-      incrementProgressIfPresent(progress);
+    operateParallel(maxChunk -> {
+      byte[] ciphers = new byte[(maxChunk + 1) * blockByteSize];
+      byte[] keyStream = new byte[maxChunk * blockByteSize];
+      return (i, count) -> {
+        readBlocksWithPrev(cipherReader, i, count, ciphers);
+        cryptoSystem.encryptBlocks(ciphers, 0, keyStream, 0, count);
+        Bits.xorInPlace(keyStream, 0, ciphers, blockByteSize, count * blockByteSize);
+        msgWriter.writeBlocks(i, count, keyStream, 0);
+        addProgressIfPresent(progress, count);
+      };
     }, blockCount);
   }
 
   private void encryptByOFB(DataReader msgReader, DataWriter cipherWriter,
                             long blockCount, CryptoProgress<?> progress) {
-    byte[] tmp = initVector;
+    byte[] block = new byte[blockByteSize];
+    byte[] keyStream = initVector.clone();
     for (long i = 0; i < blockCount; ++i) {
-      tmp = cryptoSystem.encrypt(tmp);
-      byte[] msg = msgReader.readBlock(i);
-      byte[] cipher = Bits.xor(msg, tmp);
-      cipherWriter.writeBlock(i, cipher);
-      incrementProgressIfPresent(progress);
+      cryptoSystem.encryptBlock(keyStream, 0, keyStream, 0);
+      msgReader.readBlock(i, block);
+      Bits.xorInPlace(block, 0, keyStream, 0, blockByteSize);
+      cipherWriter.writeBlock(i, block);
+      addSequentialProgressIfPresent(progress, i, blockCount);
     }
   }
 
@@ -504,26 +914,23 @@ public final class SymmetricCryptoContext {
 
   private void encryptByRandomDelta(DataReader msgReader, DataWriter cipherWriter,
                                     long blockCount, CryptoProgress<?> progress, BigInteger delta) {
-    BigInteger counter = new BigInteger(1, initVector);
-    operateParallel(i -> {
-      byte[] msg = msgReader.readBlock(i);
-      byte[] tmp = counter
-          .add(BigInteger.valueOf(i).multiply(delta))
-          .and(counterMask)
-          .toByteArray();
-
-      if (tmp.length != blockByteSize) {
-        byte[] tmp2 = new byte[blockByteSize];
-        int srcPos = Math.max(tmp.length - blockByteSize, 0);
-        int destPos = Math.max(blockByteSize - tmp.length, 0);
-        int length = blockByteSize - destPos;
-        System.arraycopy(tmp, srcPos, tmp2, destPos, length); // TODO: perhaps virtual threads do not like native code
-        tmp = tmp2;
-      }
-
-      byte[] cipher = Bits.xor(msg, cryptoSystem.encrypt(tmp));
-      cipherWriter.writeBlock(i, cipher);
-      incrementProgressIfPresent(progress);
+    CounterBlockGenerator counterPrototype = new CounterBlockGenerator(initVector, delta);
+    operateParallel(maxChunk -> {
+      CounterBlockGenerator counters = counterPrototype.copy();
+      byte[] keyStream = new byte[maxChunk * blockByteSize];
+      byte[] blocks = new byte[maxChunk * blockByteSize];
+      return (i, count) -> {
+        counters.seek(i);
+        for (int k = 0; k < count; ++k) {
+          counters.next(keyStream, k * blockByteSize);
+        }
+
+        cryptoSystem.encryptBlocks(keyStream, 0, keyStream, 0, count);
+        msgReader.readBlocks(i, count, blocks, 0);
+        Bits.xorInPlace(blocks, 0, keyStream, 0, count * blockByteSize);
+        cipherWriter.writeBlocks(i, count, blocks, 0);
+        addProgressIfPresent(progress, count);
+      };
     }, blockCount);
   }
 
@@ -532,16 +939,129 @@ public final class SymmetricCryptoContext {
     encryptByRandomDelta(cipherReader, msgWriter, blockCount, progress, delta);
   }
 
+  // Cipher is the segment header followed by the body, whose blocks match message blocks one to one.
+  // Segment IVs are E(IV + k), so they are unpredictable and the cipher is reproducible for the context
+  private void encryptSegmented(DataReader msgReader, DataWriter cipherWriter,
+                                long blockCount, CryptoProgress<?> progress) {
+    SegmentHeader header = SegmentHeader.split(blockByteSize, blockCount, segmentBlockCount);
+    byte[] segmentInitVectors = header.getInitVectors();
+    CounterBlockGenerator counters = new CounterBlockGenerator(initVector, BigInteger.ONE);
+    for (int k = 0; k < header.getSegmentCount(); ++k) {
+      counters.next(segmentInitVectors, k * blockByteSize);
+    }
+    cryptoSystem.encryptBlocks(segmentInitVectors, 0, segmentInitVectors, 0, header.getSegmentCount());
+
+    int headerBlockCount = header.getBlockCount();
+    cipherWriter.writeBlocks(0, headerBlockCount, header.toBytes(), 0);
+    DataWriter bodyWriter = (idx, count, buffer, offset) ->
+        cipherWriter.writeBlocks(headerBlockCount + idx, count, buffer, offset);
+    operateSegments(header, msgReader, bodyWriter, true, progress);
+  }
+
+  private void decryptSegmented(DataReader cipherReader, DataWriter msgWriter,
+                                long blockCount, CryptoProgress<?> progress) {
+    byte[] prefix = new byte[SegmentHeader.getPrefixBlockCount(blockByteSize) * blockByteSize];
+    cipherReader.readBlocks(0, prefix.length / blockByteSize, prefix, 0);
+    int headerBlockCount = SegmentHeader.readBlockCount(blockByteSize, prefix);
+    byte[] headerBytes = new byte[headerBlockCount * blockByteSize];
+    cipherReader.readBlocks(0, headerBlockCount, headerBytes, 0);
+    SegmentHeader header = SegmentHeader.parse(blockByteSize, headerBytes, blockCount);
+
+    DataReader bodyReader = (idx, count, buffer, offset) ->
+        cipherReader.readBlocks(headerBlockCount + idx, count, buffer, offset);
+    operateSegments(header, bodyReader, msgWriter, false, progress);
+  }
+
+  // Segments run in parallel, each one sequentially through the chaining state of StreamingCipher
+  private void operateSegments(SegmentHeader header, DataReader reader, DataWriter writer,
+                               boolean isEncryption, CryptoProgress<?> progress) {
+    operateParallel(_ -> {
+      byte[] blocks = new byte[chunkBlockCount * blockByteSize];
+      return (segmentIdx, _) -> {
+        int idx = (int) segmentIdx;
+        StreamingCipher chain = newStreamingCipher(header.getInitVector(idx), isEncryption, 1);
+        long end = header.getSegmentFirstBlock(idx) + header.getSegmentBlockCount(idx);
+        for (long i = header.getSegmentFirstBlock(idx); i < end; i += chunkBlockCount) {
+          int count = (int) Math.min(chunkBlockCount, end - i);
+          reader.readBlocks(i, count, blocks, 0);
+          chain.transform(blocks, count);
+          writer.writeBlocks(i, count, blocks, 0);
+          addProgressIfPresent(progress, count);
+        }
+      };
+    }, header.getSegmentCount(), 1, header.getBodyBlockCount());
+  }
+
+  // Reads cipher blocks [idx - 1, idx + count), using IV in place of the block -1
+  private void readBlocksWithPrev(DataReader reader, long idx, int count, byte[] blocks) {
+    if (idx > 0) {
+      reader.readBlocks(idx - 1, count + 1, blocks, 0);
+    } else {
+      System.arraycopy(initVector, 0, blocks, 0, blockByteSize);
+      reader.readBlocks(idx, count, blocks, blockByteSize);
+    }
+  }
+
   // endregion
 
   // region --- Utility read/write classes ---
 
+  // Readers fill whole blocks (padding of the last one is set in place);
+  // writers must not keep a reference to the given buffer, as callers reuse it
+
   private interface DataReader {
-    byte[] readBlock(long idx);
+    void readBlocks(long idx, int count, byte[] buffer, int offset);
+
+    default void readBlock(long idx, byte[] block) {
+      readBlocks(idx, 1, block, 0);
+    }
   }
 
   private interface DataWriter {
-    void writeBlock(long idx, byte[] block);
+    void writeBlocks(long idx, int count, byte[] buffer, int offset);
+
+    default void writeBlock(long idx, byte[] block) {
+      writeBlocks(idx, 1, block, 0);
+    }
+  }
+
+  @FunctionalInterface
+  private interface BlockRunWorker {
+    void accept(long firstBlockIdx, int blockCount);
+  }
+
+  /** reports reads of the wrapped reader to metrics */
+  private class MeteredDataReader implements DataReader {
+
+    private final DataReader reader;
+
+    public MeteredDataReader(DataReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public void readBlocks(long idx, int count, byte[] buffer, int offset) {
+      long start = System.nanoTime();
+      reader.readBlocks(idx, count, buffer, offset);
+      metrics.onRead((long) count * blockByteSize, System.nanoTime() - start);
+    }
+  }
+
+  /** reports writes of the wrapped writer to metrics */
+  private class MeteredDataWriter implements DataWriter {
+
+    private final DataWriter writer;
+
+    public MeteredDataWriter(DataWriter writer) {
+      this.writer = writer;
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      long start = System.nanoTime();
+      writer.writeBlocks(idx, count, buffer, offset);
+      metrics.onWrite((long) count * blockByteSize, System.nanoTime() - start);
+    }
   }
 
   /** reads both message and cipher blocks from array */
@@ -554,96 +1074,91 @@ public final class SymmetricCryptoContext {
     }
 
     @Override
-    public byte[] readBlock(long idx) {
-      int intIdx = (int) idx;
-      int dataEnd = Math.min(blockByteSize * (intIdx + 1), data.length);
-      byte[] block = Arrays.copyOfRange(data, blockByteSize * intIdx, dataEnd);
-      return paddingMode.setPadding(block, blockByteSize);
+    public void readBlocks(long idx, int count, byte[] buffer, int offset) {
+      int dataOffset = blockByteSize * (int) idx;
+      int dataLength = Math.min(count * blockByteSize, data.length - dataOffset);
+      System.arraycopy(data, dataOffset, buffer, offset, dataLength);
+      setLastBlockPadding(buffer, offset, count, dataLength);
     }
   }
 
   /** reads both message and cipher blocks from file */
   private class FileDataReader implements DataReader {
 
-//    private static final int CACHE_BLOCK_BYTE_SIZE = 1 << 16;
-//    private static final int CACHE_SIZE = 16;
-
     private final FileChannel fileChannel;
-    private final ConcurrentHashMap<Long, byte[]> cache;
-//    private final int blocksPerCacheBlock;
+    private final long fileSize;
 
     public FileDataReader(FileChannel fileChannel) {
       this.fileChannel = fileChannel;
-      this.cache = new ConcurrentHashMap<>();
-//      blocksPerCacheBlock = CACHE_BLOCK_BYTE_SIZE / blockByteSize;
+      try {
+        this.fileSize = fileChannel.size();
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex.getMessage(), ex);
+      }
     }
 
     @Override
-    public byte[] readBlock(long idx) {
+    public void readBlocks(long idx, int count, byte[] buffer, int offset) {
       try {
-        int availBlockSize = Math.min((int) (fileChannel.size() - blockByteSize * idx), blockByteSize);
-        byte[] block = new byte[availBlockSize];
-        fileChannel.read(ByteBuffer.wrap(block), blockByteSize * idx);
-//        byte[] block = readCache(idx);
-        return paddingMode.setPadding(block, blockByteSize);
+        long position = blockByteSize * idx;
+        int dataLength = (int) Math.min(fileSize - position, (long) count * blockByteSize);
+        ByteBuffer target = ByteBuffer.wrap(buffer, offset, dataLength);
+        while (target.hasRemaining()) {
+          int read = fileChannel.read(target, position + target.position() - offset);
+          if (read < 0) {
+            break;
+          }
+        }
+        setLastBlockPadding(buffer, offset, count, dataLength);
       } catch (IOException ex) {
         throw new UncheckedIOException("IOException occurred while reading from FileChannel", ex);
       }
     }
+  }
 
-//    private byte[] readCache(long idx) throws IOException {
-//      long cacheIdx = idx / blocksPerCacheBlock;
-//      byte[] cacheBlock;
-//      synchronized (cache) {
-//        cacheBlock = cache.getOrDefault(cacheIdx, null);
-//        if (cacheBlock == null) {
-//          if (cache.size() >= CACHE_SIZE) {
-//            cache.clear();
-//          }
-//          int availCacheBlockSize = (int) Math
-//              .min((fileChannel.size() - CACHE_BLOCK_BYTE_SIZE * cacheIdx), CACHE_BLOCK_BYTE_SIZE);
-//          cacheBlock = new byte[availCacheBlockSize];
-//          fileChannel.read(ByteBuffer.wrap(cacheBlock), CACHE_BLOCK_BYTE_SIZE * cacheIdx);
-//          cache.put(cacheIdx, cacheBlock);
-//        }
-//      }
-//
-//      int st = (int) (blockByteSize * (idx % blocksPerCacheBlock));
-//      return Arrays.copyOfRange(cacheBlock, st, Math.min(st + blockByteSize, cacheBlock.length));
-//    }
-  }
-
-  /** writes cipher blocks to array */
-  @SuppressWarnings("InnerClassMayBeStatic")
-  private class ListCipherWriter implements DataWriter {
-
-    private final List<byte[]> data;
-
-    public ListCipherWriter(List<byte[]> data) {
-      this.data = data;
+  /** writes cipher blocks straight into the result array */
+  private class ArrayCipherWriter implements DataWriter {
+
+    private final byte[] data;
+
+    public ArrayCipherWriter(long blockCount) {
+      this.data = new byte[getResultArrayLength(blockCount)];
     }
 
     @Override
-    public void writeBlock(long idx, byte[] block) {
-      data.set((int) idx, block);
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      System.arraycopy(buffer, offset, data, blockByteSize * (int) idx, count * blockByteSize);
+    }
+
+    byte[] getResult() {
+      return data;
     }
   }
 
-  /** writes message blocks to List */
-  private class ListMessageWriter implements DataWriter {
+  /** writes message blocks straight into the result array, padding is trimmed once at the end */
+  private class ArrayMessageWriter implements DataWriter {
 
-    private final List<byte[]> data;
+    private final long blockCount;
+    private final byte[] data;
+    private int paddingLength;
 
-    public ListMessageWriter(List<byte[]> data) {
-      this.data = data;
+    public ArrayMessageWriter(long blockCount) {
+      this.blockCount = blockCount;
+      this.data = new byte[getResultArrayLength(blockCount)];
     }
 
     @Override
-    public void writeBlock(long idx, byte[] block) {
-      if (idx + 1 == data.size()) {
-        block = paddingMode.clearPadding(block);
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      int length = count * blockByteSize;
+      if (idx + count == blockCount) {
+        paddingLength = paddingMode.getPaddingLength(buffer, offset + length - blockByteSize, blockByteSize);
       }
-      data.set((int) idx, block);
+      System.arraycopy(buffer, offset, data, blockByteSize * (int) idx, length);
+    }
+
+    // valid once all blocks are written
+    byte[] getResult() {
+      return paddingLength == 0 ? data : Arrays.copyOf(data, data.length - paddingLength);
     }
   }
 
@@ -662,10 +1177,11 @@ public final class SymmetricCryptoContext {
     }
 
     @Override
-    public void writeBlock(long idx, byte[] block) {
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
       try {
-        int written = fileChannel.write(ByteBuffer.wrap(block), blockByteSize * idx);
-        if (written != block.length) {
+        int length = count * blockByteSize;
+        int written = fileChannel.write(ByteBuffer.wrap(buffer, offset, length), blockByteSize * idx);
+        if (written != length) {
           LOGGER.atError().log("Bad write");
         }
       } catch (IOException ex) {
@@ -674,6 +1190,128 @@ public final class SymmetricCryptoContext {
     }
   }
 
+  /** reads both message and cipher blocks from ByteBuffer (indices are absolute, position is not used) */
+  private class ByteBufferDataReader implements DataReader {
+
+    private final ByteBuffer data;
+
+    public ByteBufferDataReader(ByteBuffer data) {
+      this.data = data;
+    }
+
+    @Override
+    public void readBlocks(long idx, int count, byte[] buffer, int offset) {
+      int dataOffset = blockByteSize * (int) idx;
+      int dataLength = Math.min(count * blockByteSize, data.limit() - dataOffset);
+      data.get(dataOffset, buffer, offset, dataLength);
+      setLastBlockPadding(buffer, offset, count, dataLength);
+    }
+  }
+
+  /** writes cipher blocks to ByteBuffer (indices are absolute, position is not used) */
+  private class ByteBufferCipherWriter implements DataWriter {
+
+    private final ByteBuffer data;
+
+    public ByteBufferCipherWriter(ByteBuffer data) {
+      this.data = data;
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      data.put(blockByteSize * (int) idx, buffer, offset, count * blockByteSize);
+    }
+  }
+
+  /** writes message blocks to ByteBuffer (indices are absolute, position is not used) */
+  private class ByteBufferMessageWriter implements DataWriter {
+
+    private final long blockCount;
+    private final ByteBuffer data;
+    private int writtenLength;
+
+    public ByteBufferMessageWriter(long blockCount, ByteBuffer data) {
+      this.blockCount = blockCount;
+      this.data = data;
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      int length = count * blockByteSize;
+      if (idx + count == blockCount) {
+        length -= paddingMode.getPaddingLength(buffer, offset + length - blockByteSize, blockByteSize);
+        writtenLength = blockByteSize * (int) idx + length;
+      }
+      data.put(blockByteSize * (int) idx, buffer, offset, length);
+    }
+
+    // valid once all blocks are written
+    int getWrittenLength() {
+      return writtenLength;
+    }
+  }
+
+  /** reads both message and cipher blocks from off-heap data */
+  private class OffHeapDataReader implements DataReader {
+
+    private final OffHeapData data;
+
+    public OffHeapDataReader(OffHeapData data) {
+      this.data = data;
+    }
+
+    @Override
+    public void readBlocks(long idx, int count, byte[] buffer, int offset) {
+      long position = blockByteSize * idx;
+      int dataLength = (int) Math.min((long) count * blockByteSize, data.size() - position);
+      data.read(position, buffer, offset, dataLength);
+      setLastBlockPadding(buffer, offset, count, dataLength);
+    }
+  }
+
+  /** writes cipher blocks to off-heap data */
+  private class OffHeapCipherWriter implements DataWriter {
+
+    private final OffHeapData data;
+
+    public OffHeapCipherWriter(OffHeapData data) {
+      this.data = data;
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      data.write(blockByteSize * idx, buffer, offset, count * blockByteSize);
+    }
+  }
+
+  /** writes message blocks to off-heap data, padding is cut off once at the end */
+  private class OffHeapMessageWriter implements DataWriter {
+
+    private final long blockCount;
+    private final OffHeapData data;
+    private int paddingLength;
+
+    public OffHeapMessageWriter(long blockCount) {
+      this.blockCount = blockCount;
+      this.data = OffHeapData.allocate(blockCount * blockByteSize);
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      int length = count * blockByteSize;
+      if (idx + count == blockCount) {
+        paddingLength = paddingMode.getPaddingLength(buffer, offset + length - blockByteSize, blockByteSize);
+      }
+      data.write(blockByteSize * idx, buffer, offset, length);
+    }
+
+    // valid once all blocks are written
+    OffHeapData getResult() {
+      data.truncate(data.size() - paddingLength);
+      return data;
+    }
+  }
+
   /** writes message blocks to file */
   private class FileMessageWriter implements DataWriter {
 
@@ -691,14 +1329,15 @@ public final class SymmetricCryptoContext {
     }
 
     @Override
-    public void writeBlock(long idx, byte[] block) {
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
       try {
-        if (idx + 1 == blockCount) {
-          block = paddingMode.clearPadding(block);
+        int length = count * blockByteSize;
+        if (idx + count == blockCount) {
+          length -= paddingMode.getPaddingLength(buffer, offset + length - blockByteSize, blockByteSize);
         }
 
-        int written = fileChannel.write(ByteBuffer.wrap(block), blockByteSize * idx);
-        if (written != block.length) {
+        int written = fileChannel.write(ByteBuffer.wrap(buffer, offset, length), blockByteSize * idx);
+        if (written != length) {
           LOGGER.atError().log("Bad write");
         }
       } catch (IOException ex) {
@@ -707,10 +1346,137 @@ public final class SymmetricCryptoContext {
     }
   }
 
+  /** reads both message and cipher blocks from memory-mapped file */
+  private class MappedFileDataReader implements DataReader {
+
+    private final MappedFileWindows mapping;
+
+    public MappedFileDataReader(FileChannel fileChannel) {
+      try {
+        this.mapping = new MappedFileWindows(fileChannel, FileChannel.MapMode.READ_ONLY,
+            fileChannel.size(), getMappingWindowByteSize());
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public void readBlocks(long idx, int count, byte[] buffer, int offset) {
+      long position = blockByteSize * idx;
+      int dataLength = (int) Math.min(mapping.size() - position, (long) count * blockByteSize);
+      mapping.read(position, buffer, offset, dataLength);
+      setLastBlockPadding(buffer, offset, count, dataLength);
+    }
+  }
+
+  /** writes cipher blocks to memory-mapped file */
+  private class MappedFileCipherWriter implements DataWriter {
+
+    private final MappedFileWindows mapping;
+
+    public MappedFileCipherWriter(long blockCount, FileChannel fileChannel) {
+      try {
+        // mapping in READ_WRITE mode extends the file up to the mapped size
+        fileChannel.truncate(0);
+        this.mapping = new MappedFileWindows(fileChannel, FileChannel.MapMode.READ_WRITE,
+            blockByteSize * blockCount, getMappingWindowByteSize());
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      mapping.write(blockByteSize * idx, buffer, offset, count * blockByteSize);
+    }
+  }
+
+  /** writes message blocks to memory-mapped file; the last block is written via channel */
+  private class MappedFileMessageWriter implements DataWriter {
+
+    private final long blockCount;
+    private final FileChannel fileChannel;
+    private final MappedFileWindows mapping;
+
+    public MappedFileMessageWriter(long blockCount, FileChannel fileChannel) {
+      this.blockCount = blockCount;
+      this.fileChannel = fileChannel;
+      try {
+        // the size of the last block is unknown until its padding is scanned, so it is not mapped
+        fileChannel.truncate(0);
+        this.mapping = new MappedFileWindows(fileChannel, FileChannel.MapMode.READ_WRITE,
+            blockByteSize * Math.max(blockCount - 1, 0), getMappingWindowByteSize());
+      } catch (IOException ex) {
+        throw new UncheckedIOException(ex.getMessage(), ex);
+      }
+    }
+
+    @Override
+    public void writeBlocks(long idx, int count, byte[] buffer, int offset) {
+      boolean hasLastBlock = idx + count == blockCount;
+      int mappedCount = hasLastBlock ? count - 1 : count;
+      mapping.write(blockByteSize * idx, buffer, offset, mappedCount * blockByteSize);
+      if (!hasLastBlock) {
+        return;
+      }
+
+      try {
+        int lastBlockOffset = offset + mappedCount * blockByteSize;
+        int length = blockByteSize - paddingMode.getPaddingLength(buffer, lastBlockOffset, blockByteSize);
+        ByteBuffer lastBlock = ByteBuffer.wrap(buffer, lastBlockOffset, length);
+        long position = blockByteSize * (blockCount - 1);
+        while (lastBlock.hasRemaining()) {
+          position += fileChannel.write(lastBlock, position);
+        }
+      } catch (IOException ex) {
+        throw new UncheckedIOException("IOException occurred while writing to FileChannel", ex);
+      }
+    }
+  }
+
+  private int getMappingWindowByteSize() {
+    return MAPPING_WINDOW_BYTE_SIZE / blockByteSize * blockByteSize;
+  }
+
+  // dataLength is the count of meaningful bytes read into the run of count blocks at offset
+  private void setLastBlockPadding(byte[] buffer, int offset, int count, int dataLength) {
+    if (dataLength < count * blockByteSize) {
+      int lastBlockOffset = offset + (count - 1) * blockByteSize;
+      paddingMode.setPadding(buffer, lastBlockOffset, blockByteSize, dataLength - (count - 1) * blockByteSize);
+    }
+  }
+
   // endregion
 
   // region --- Other utility ---
 
+  // Cipher block count for the given message block count, including the segment header if any
+  private long getEncryptedBlockCount(long msgBlockCount) {
+    if (segmentBlockCount == 0) {
+      return msgBlockCount;
+    }
+    return msgBlockCount + SegmentHeader.getBlockCount(blockByteSize, msgBlockCount, segmentBlockCount);
+  }
+
+  // Message block count (padding included) for the given cipher, excluding the segment header if any
+  private long getDecryptedBlockCount(DataReader cipherReader, long cipherBlockCount) {
+    if (segmentBlockCount == 0) {
+      return cipherBlockCount;
+    }
+
+    int prefixBlockCount = SegmentHeader.getPrefixBlockCount(blockByteSize);
+    if (cipherBlockCount < prefixBlockCount) {
+      throw new IllegalArgumentException("Incorrect segmented cipher header");
+    }
+    byte[] prefix = new byte[prefixBlockCount * blockByteSize];
+    cipherReader.readBlocks(0, prefixBlockCount, prefix, 0);
+    int headerBlockCount = SegmentHeader.readBlockCount(blockByteSize, prefix);
+    if (headerBlockCount > cipherBlockCount) {
+      throw new IllegalArgumentException("Incorrect segmented cipher header");
+    }
+    return cipherBlockCount - headerBlockCount;
+  }
+
   private long getMessageBlockCount(long cipherByteLength) {
     if (cipherByteLength % blockByteSize != 0) {
       throw new IllegalArgumentException("Incorrect cipher size");
@@ -732,52 +1498,250 @@ public final class SymmetricCryptoContext {
     }
   }
 
-  private void throwIfTooLargeFile(long fileLength) {
-    if (fileLength > (long) Integer.MAX_VALUE * blockByteSize) {
-      throw new IllegalArgumentException("File is too large to be encrypted (decrypted) into the memory");
+  private void throwIfInvalidBatch(List<byte[]> data, List<byte[]> initVectors) {
+    if (!encryptionMode.equals(BlockCipherMode.CBC) || segmentBlockCount != 0) {
+      throw new UnsupportedOperationException("Batch encryption (decryption) is supported for plain CBC mode only");
+    }
+    if (data.size() != initVectors.size()) {
+      throw new IllegalArgumentException("Every message (cipher) of the batch requires its own initial vector");
+    }
+    for (byte[] initVector : initVectors) {
+      if (initVector.length != blockByteSize) {
+        throw new IllegalArgumentException(String.format("Initial vector should have size of %d", blockByteSize));
+      }
     }
   }
 
-  private byte[] convertBlockListToArray(List<byte[]> blockList) {
-    int resLength = blockList.size() * blockByteSize;
-    if (!blockList.isEmpty()) {
-      resLength += blockList.getLast().length - blockByteSize;
+  private long getTotalBlockCount(List<byte[]> arrays) {
+    long byteCount = 0;
+    for (byte[] array : arrays) {
+      byteCount += array.length;
     }
+    return byteCount / blockByteSize;
+  }
 
-    byte[] res = new byte[resLength];
-    for (int i = 0; i < blockList.size(); ++i) {
-      System.arraycopy(blockList.get(i), 0, res, i * blockByteSize, blockList.get(i).length);
+  // Groups should be as wide as possible while still giving work to every core
+  private int getBatchLaneCount(int messageCount) {
+    int lanesPerCore = (messageCount + PARALLELISM - 1) / PARALLELISM;
+    return Math.clamp(lanesPerCore, 1, chunkBlockCount);
+  }
+
+  private int getResultArrayLength(long blockCount) {
+    if (blockCount > MAX_ARRAY_BYTE_SIZE / blockByteSize) {
+      throw new IllegalArgumentException("Data is too large to be encrypted (decrypted) into the memory");
     }
-    return res;
+    return (int) (blockCount * blockByteSize);
   }
 
-  private void operateParallel(LongConsumer taskPattern, long blockCount) {
-    List<ChainableFuture<Void>> tasks = IntStream.range(0, PARALLELISM)
-        .mapToObj(k -> ChainableFuture.runWeaklyAsync(() -> {
-          for (long i = k; i < blockCount && !Thread.currentThread().isInterrupted(); i += PARALLELISM) {
-            taskPattern.accept(i);
-          }
-        }, executor))
-        .toList();
+  // Workers take contiguous chunks of up to chunkBlockCount blocks from a shared cursor.
+  // workerFactory is called once per worker with the maximal chunk length,
+  // so a worker may own reusable buffers
+  private void operateParallel(IntFunction<BlockRunWorker> workerFactory, long blockCount) {
+    operateParallel(workerFactory, blockCount, chunkBlockCount, blockCount);
+  }
+
+  // Same for unitCount units (blocks, segments, messages) in chunks of chunkLength units;
+  // workBlockCount is the total count of blocks to process, it is compared with the inline cutoff
+  private void operateParallel(IntFunction<BlockRunWorker> workerFactory, long unitCount,
+                               int chunkLength, long workBlockCount) {
+    int maxChunk = (int) Math.min(chunkLength, unitCount);
+    if (maxChunk == 0) {
+      return;
+    }
 
-    ChainableFuture<Void> awaiter = ChainableFuture.awaitAllStronglyAsync(tasks, executor);
-    try {
-      awaiter.waitCompletion();
-    } catch (InterruptedException e) {
-      awaiter.cancel(true);
-      Thread.currentThread().interrupt();
+    ParallelRun run = new ParallelRun(workerFactory, unitCount, maxChunk, metrics);
+    if (workBlockCount > inlineBlockCount) {
+      long helperCount = Math.min(PARALLELISM, run.chunkCount) - 1;
+      for (long i = 0; i < helperCount; ++i) {
+        executor.execute(run);
+      }
     }
+    run.runOnCaller();
   }
-  
+
+  private StreamingCipher newStreamingCipher(boolean isEncryption) {
+    if (segmentBlockCount != 0) {
+      throw new UnsupportedOperationException("Streaming is not supported for the segmented cipher format");
+    }
+    return newStreamingCipher(initVector, isEncryption, chunkBlockCount);
+  }
+
+  private StreamingCipher newStreamingCipher(byte[] initVector, boolean isEncryption, int bufferBlockCount) {
+    BigInteger delta = (BigInteger) extraConfig.getOrDefault(RD_PARAM, null);
+    return new StreamingCipher(cryptoSystem, paddingMode, encryptionMode, initVector, delta,
+        isEncryption, bufferBlockCount);
+  }
+
   private void setupProgressIfPresent(CryptoProgress<?> progress, long blockCnt) {
     if (progress != null) {
       progress.setBlockCount(blockCnt);
     }
   }
   
-  private void incrementProgressIfPresent(CryptoProgress<?> progress) {
+  // Sequential modes report once per chunk rather than per block, so the shared counter stays cold
+  private void addSequentialProgressIfPresent(CryptoProgress<?> progress, long blockIdx, long blockCount) {
+    if (progress != null) {
+      long processedCount = blockIdx + 1;
+      int chunkRemainder = (int) (processedCount % chunkBlockCount);
+      if (chunkRemainder == 0) {
+        progress.addProcessedBlocksCount(chunkBlockCount);
+      } else if (processedCount == blockCount) {
+        progress.addProcessedBlocksCount(chunkRemainder);
+      }
+    }
+  }
+
+  private void addProgressIfPresent(CryptoProgress<?> progress, int blockCount) {
     if (progress != null) {
-      progress.incrementProcessedBlocksCount();
+      progress.addProcessedBlocksCount(blockCount);
+    }
+  }
+
+  /**
+   * One parallel operation. The caller thread works on it too, and the same instance is handed
+   * to the executor as every helper task, so no futures or awaiting tasks are created
+   */
+  private static final class ParallelRun implements Runnable {
+
+    private static final int CLOSED = 1 << 30;
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = getAllocationMeasuringBean();
+
+    private final IntFunction<BlockRunWorker> workerFactory;
+    private final long unitCount;
+    private final int maxChunk;
+    private final long chunkCount;
+    private final AtomicLong chunkCursor;
+    // count of running helpers; the CLOSED bit is set once the caller stops accepting new ones
+    private final AtomicInteger helperState;
+    private final AtomicReference<Throwable> failure;
+    private final Thread caller;
+    private final CryptoMetrics metrics; // null if metrics are off
+    private final long startNanos;
+
+    ParallelRun(IntFunction<BlockRunWorker> workerFactory, long unitCount, int maxChunk, CryptoMetrics metrics) {
+      this.workerFactory = workerFactory;
+      this.unitCount = unitCount;
+      this.maxChunk = maxChunk;
+      this.chunkCount = (unitCount + maxChunk - 1) / maxChunk;
+      this.chunkCursor = new AtomicLong();
+      this.helperState = new AtomicInteger();
+      this.failure = new AtomicReference<>();
+      this.caller = Thread.currentThread();
+      this.metrics = metrics;
+      this.startNanos = metrics == null ? 0 : System.nanoTime();
+    }
+
+    // helper task: helpers starting after the caller has finished do nothing
+    @Override
+    public void run() {
+      int state;
+      do {
+        state = helperState.get();
+        if ((state & CLOSED) != 0) {
+          return;
+        }
+      } while (!helperState.compareAndSet(state, state + 1));
+
+      if (metrics != null) {
+        metrics.onQueueWait(System.nanoTime() - startNanos);
+      }
+      try {
+        work();
+      } catch (Throwable ex) { // NOSONAR
+        fail(ex);
+      } finally {
+        if (helperState.decrementAndGet() == CLOSED) {
+          LockSupport.unpark(caller);
+        }
+      }
+    }
+
+    void runOnCaller() {
+      try {
+        work();
+      } catch (RuntimeException | Error ex) {
+        fail(ex);
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        chunkCursor.set(chunkCount);
+      }
+
+      // waits for running helpers, as they still may write results
+      boolean isInterrupted = false;
+      long joinStart = metrics == null ? 0 : System.nanoTime();
+      helperState.getAndAdd(CLOSED);
+      while (helperState.get() != CLOSED) {
+        LockSupport.park(this);
+        isInterrupted |= Thread.interrupted();
+      }
+      if (metrics != null) {
+        metrics.onJoinWait(System.nanoTime() - joinStart);
+      }
+      if (isInterrupted) {
+        Thread.currentThread().interrupt();
+      }
+
+      Throwable ex = failure.get();
+      if (ex instanceof RuntimeException runtimeEx) {
+        throw runtimeEx;
+      } else if (ex instanceof Error error) {
+        throw error;
+      } else if (ex != null) {
+        throw new IllegalStateException(ex);
+      }
+    }
+
+    private void work() {
+      if (chunkCursor.get() >= chunkCount) {
+        return;
+      }
+      if (metrics == null) {
+        workOnChunks();
+        return;
+      }
+
+      long start = System.nanoTime();
+      long startAllocated = getAllocatedBytes();
+      long workedUnitCount = 0;
+      try {
+        workedUnitCount = workOnChunks();
+      } finally {
+        long allocated = startAllocated < 0 ? -1 : getAllocatedBytes() - startAllocated;
+        metrics.onWorkerFinished(workedUnitCount, System.nanoTime() - start, allocated);
+      }
+    }
+
+    // returns the count of processed units
+    private long workOnChunks() {
+      BlockRunWorker worker = workerFactory.apply(maxChunk);
+      long workedUnitCount = 0;
+      long chunkIdx;
+      while ((chunkIdx = chunkCursor.getAndIncrement()) < chunkCount
+          && !Thread.currentThread().isInterrupted()) {
+        long firstUnitIdx = chunkIdx * maxChunk;
+        int count = (int) Math.min(maxChunk, unitCount - firstUnitIdx);
+        worker.accept(firstUnitIdx, count);
+        workedUnitCount += count;
+      }
+      return workedUnitCount;
+    }
+
+    private static long getAllocatedBytes() {
+      return THREAD_BEAN == null ? -1 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean getAllocationMeasuringBean() {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+          && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+        return bean;
+      }
+      return null;
+    }
+
+    // the first failure is reported to the caller, others stop taking chunks
+    private void fail(Throwable ex) {
+      failure.compareAndSet(null, ex);
+      chunkCursor.set(chunkCount);
     }
   }
 
@@ -2,11 +2,11 @@ package org.reminstant.cryptography.symmetric;
 
 import org.reminstant.cryptography.Bits;
 import org.reminstant.cryptography.BitNumbering;
+import org.reminstant.cryptography.CompiledPermutation;
 import org.reminstant.cryptography.CryptoOperation;
 
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.IntStream;
 
 public final class DEAL extends FeistelNetwork {
@@ -14,9 +14,7 @@ public final class DEAL extends FeistelNetwork {
   private static final int BLOCK_BYTE_SIZE = 16;
   private static final List<Integer> KEY_BYTE_SIZES = List.of(16, 24, 32);
 
-  private static final int[] SWAP_BLOCK_HALVES_RULE = {
-      8, 9, 10, 11, 12, 13, 14, 15, 0, 1, 2, 3, 4, 5, 6, 7
-  };
+  private static final int HALF_BLOCK_BYTE_SIZE = BLOCK_BYTE_SIZE / 2;
 
 
   public static List<Integer> getKeyByteSizes() {
@@ -24,29 +22,31 @@ public final class DEAL extends FeistelNetwork {
   }
 
   public DEAL(byte[] key) {
-    super(new Scheduler(), new FeistelFunction(), BLOCK_BYTE_SIZE, key);
+    super(new Scheduler(), DEAL::bindRoundCiphers, BLOCK_BYTE_SIZE, key);
   }
 
 
   @Override
-  protected void executeBeforeNetwork(byte[] data, boolean isEncryption) {
-    if (data.length != BLOCK_BYTE_SIZE) {
-      throw new IllegalArgumentException("DEAL crypto-system handles blocks of 128 bits");
-    }
+  protected void executeBeforeNetwork(byte[] data, int offset, boolean isEncryption) {
     if (isEncryption) {
-      byte[] swapped = Bits.permuteBytes(data, SWAP_BLOCK_HALVES_RULE);
-      System.arraycopy(swapped, 0, data, 0, data.length);
+      Bits.swapInPlace(data, offset, offset + HALF_BLOCK_BYTE_SIZE, HALF_BLOCK_BYTE_SIZE);
     }
   }
 
   @Override
-  protected void executeAfterNetwork(byte[] data, boolean isEncryption) {
+  protected void executeAfterNetwork(byte[] data, int offset, boolean isEncryption) {
     if (!isEncryption) {
-      byte[] swapped = Bits.permuteBytes(data, SWAP_BLOCK_HALVES_RULE);
-      System.arraycopy(swapped, 0, data, 0, data.length);
+      Bits.swapInPlace(data, offset, offset + HALF_BLOCK_BYTE_SIZE, HALF_BLOCK_BYTE_SIZE);
     }
   }
 
+  // DES instance per round is built once per key rather than for every block
+  private static KeyedRoundFunction bindRoundCiphers(byte[][] roundKeys) {
+    DES[] roundCiphers = Arrays.stream(roundKeys).map(DES::new).toArray(DES[]::new);
+    return (round, data, dataOffset, target, targetOffset) ->
+        FeistelFunction.applyXor(roundCiphers[round], data, dataOffset, target, targetOffset);
+  }
+
 
   public static final class Scheduler extends ExtractScheduler {
 
@@ -71,6 +71,9 @@ public final class DEAL extends FeistelNetwork {
         57, 58, 59, 60, 61, 62, 63,
     };
 
+    private static final CompiledPermutation COMPILED_PARITY_BITS_ERASER =
+        new CompiledPermutation(PARITY_BITS_ERASER, BitNumbering.MSB1_FIRST, SUBKEY_BYTE_SIZE);
+
     private static final byte[] CONST_1 = Bits.unpackLongToBigEndian(1L << 63);
     private static final byte[] CONST_2 = Bits.unpackLongToBigEndian(1L << 62);
     private static final byte[] CONST_4 = Bits.unpackLongToBigEndian(1L << 60);
@@ -90,7 +93,7 @@ public final class DEAL extends FeistelNetwork {
         default -> throw new IllegalArgumentException("DEAL key scheduler handles keys of 128/192/256 bits");
       };
       IntStream.range(0, roundKeys.length)
-          .forEach(i -> roundKeys[i] = Bits.permute(roundKeys[i], PARITY_BITS_ERASER, BitNumbering.MSB1_FIRST));
+          .forEach(i -> roundKeys[i] = COMPILED_PARITY_BITS_ERASER.apply(roundKeys[i]));
       return roundKeys;
     }
 
@@ -132,25 +135,21 @@ public final class DEAL extends FeistelNetwork {
 
   public static final class FeistelFunction implements CryptoOperation {
 
-    private static final int MAX_CACHE_SIZE = 24;
-
-    private final Map<byte[], DES> cache;
-
-    public FeistelFunction() {
-      cache = new ConcurrentHashMap<>();
+    @Override
+    public byte[] apply(byte[] data, byte[] key) {
+      return new DES(key).encrypt(data);
     }
 
     @Override
-    public byte[] apply(byte[] data, byte[] key) {
-      DES des = cache.getOrDefault(key, null);
-      if (des == null) {
-        if (cache.size() >= MAX_CACHE_SIZE) {
-          cache.clear();
-        }
-        des = new DES(key);
-        cache.put(key, des);
-      }
-      return des.encrypt(data);
+    public void applyXor(byte[] data, int dataOffset, int dataLength,
+                         byte[] key, byte[] target, int targetOffset) {
+      applyXor(new DES(key), data, dataOffset, target, targetOffset);
+    }
+
+    private static void applyXor(DES des, byte[] data, int dataOffset, byte[] target, int targetOffset) {
+      long value = des.encrypt(Bits.packBigEndianToLong(data, dataOffset));
+      long targetValue = Bits.packBigEndianToLong(target, targetOffset);
+      Bits.unpackLongToBigEndian(targetValue ^ value, target, targetOffset);
     }
   }
 }
@@ -1,19 +1,25 @@
 package org.reminstant.cryptography.symmetric;
 
 import org.reminstant.cryptography.Bits;
+import org.reminstant.cryptography.CompiledPermutation;
 import org.reminstant.cryptography.CryptoOperation;
 import org.reminstant.cryptography.KeyScheduler;
+import org.reminstant.cryptography.SymmetricCryptoSystem;
 
 import java.util.List;
 
 import static org.reminstant.cryptography.BitNumbering.MSB1_FIRST;
 
-public final class DES extends FeistelNetwork {
+public final class DES implements SymmetricCryptoSystem {
 
   private static final int BLOCK_BYTE_SIZE = 8;
 
   private static final int KEY_BYTE_SIZE = 7;
 
+  private static final int ROUND_COUNT = 16;
+
+  private static final int S_BOX_COUNT = 8;
+
   private static final int[] INITIAL_PERMUTATION = {
       58, 50, 42, 34, 26, 18, 10, 2,
       60, 52, 44, 36, 28, 20, 12, 4,
@@ -37,35 +43,154 @@ public final class DES extends FeistelNetwork {
   };
 
 
+  private static final CompiledPermutation COMPILED_INITIAL_PERMUTATION =
+      new CompiledPermutation(INITIAL_PERMUTATION, MSB1_FIRST, BLOCK_BYTE_SIZE);
+  private static final CompiledPermutation COMPILED_INVERSE_INITIAL_PERMUTATION =
+      new CompiledPermutation(INVERSE_INITIAL_PERMUTATION, MSB1_FIRST, BLOCK_BYTE_SIZE);
+
+  private final KeyScheduler keyScheduler;
+  // 6-bit chunks of round keys: roundKeys[8 * i + j] is the j-th S-box key chunk of round i
+  private int[] roundKeys;
+
+
   public static List<Integer> getKeyByteSizes() {
     return List.of(KEY_BYTE_SIZE);
   }
 
   public DES(byte[] key) {
-    super(new Scheduler(), new FeistelFunction(), BLOCK_BYTE_SIZE, key);
+    this.keyScheduler = new Scheduler();
+    this.roundKeys = splitRoundKeys(keyScheduler.schedule(key));
+  }
+
+
+  @Override
+  public byte[] encrypt(byte[] data) {
+    throwIfInvalidBlockSize(data.length);
+    return Bits.unpackLongToBigEndian(encrypt(Bits.packBigEndianToLong(data, 0)));
+  }
+
+  @Override
+  public byte[] decrypt(byte[] data) {
+    throwIfInvalidBlockSize(data.length);
+    return Bits.unpackLongToBigEndian(decrypt(Bits.packBigEndianToLong(data, 0)));
+  }
+
+  @Override
+  public void encryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    Bits.unpackLongToBigEndian(encrypt(Bits.packBigEndianToLong(in, inOffset)), out, outOffset);
+  }
+
+  @Override
+  public void decryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    Bits.unpackLongToBigEndian(decrypt(Bits.packBigEndianToLong(in, inOffset)), out, outOffset);
+  }
+
+  @Override
+  public void encryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    processBlocks(in, inOffset, out, outOffset, blockCount, false);
+  }
+
+  @Override
+  public void decryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    processBlocks(in, inOffset, out, outOffset, blockCount, true);
   }
 
+  @Override
+  public void setKey(byte[] key) {
+    this.roundKeys = splitRoundKeys(keyScheduler.schedule(key));
+  }
 
   @Override
-  protected void executeBeforeNetwork(byte[] data, boolean isEncryption) {
-    if (data.length != BLOCK_BYTE_SIZE) {
+  public int getBlockByteSize() {
+    return BLOCK_BYTE_SIZE;
+  }
+
+
+  long encrypt(long block) {
+    return process(block, false);
+  }
+
+  long decrypt(long block) {
+    return process(block, true);
+  }
+
+
+  private long process(long block, boolean isDecryption) {
+    int[] keys = roundKeys;
+    block = COMPILED_INITIAL_PERMUTATION.apply(block);
+    int left = (int) (block >>> 32);
+    int right = (int) block;
+
+    for (int i = 0; i < ROUND_COUNT; ++i) {
+      int keyOffset = S_BOX_COUNT * (isDecryption ? ROUND_COUNT - 1 - i : i);
+      int tmp = left ^ FeistelFunction.apply(right, keys, keyOffset);
+      left = right;
+      right = tmp;
+    }
+
+    block = (long) right << 32 | Integer.toUnsignedLong(left);
+    return COMPILED_INVERSE_INITIAL_PERMUTATION.apply(block);
+  }
+
+  // Carries two independent blocks through each round together, so their table lookups overlap;
+  // both blocks are read before any is written, so in and out may be the same region
+  private void processBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount,
+                             boolean isDecryption) {
+    int[] keys = roundKeys;
+    int k = 0;
+    for (; k + 1 < blockCount; k += 2) {
+      int inPosition = inOffset + k * BLOCK_BYTE_SIZE;
+      long blockA = COMPILED_INITIAL_PERMUTATION.apply(Bits.packBigEndianToLong(in, inPosition));
+      long blockB = COMPILED_INITIAL_PERMUTATION.apply(Bits.packBigEndianToLong(in, inPosition + BLOCK_BYTE_SIZE));
+      int leftA = (int) (blockA >>> 32);
+      int rightA = (int) blockA;
+      int leftB = (int) (blockB >>> 32);
+      int rightB = (int) blockB;
+
+      for (int i = 0; i < ROUND_COUNT; ++i) {
+        int keyOffset = S_BOX_COUNT * (isDecryption ? ROUND_COUNT - 1 - i : i);
+        int tmpA = leftA ^ FeistelFunction.apply(rightA, keys, keyOffset);
+        int tmpB = leftB ^ FeistelFunction.apply(rightB, keys, keyOffset);
+        leftA = rightA;
+        rightA = tmpA;
+        leftB = rightB;
+        rightB = tmpB;
+      }
+
+      int outPosition = outOffset + k * BLOCK_BYTE_SIZE;
+      blockA = (long) rightA << 32 | Integer.toUnsignedLong(leftA);
+      blockB = (long) rightB << 32 | Integer.toUnsignedLong(leftB);
+      Bits.unpackLongToBigEndian(COMPILED_INVERSE_INITIAL_PERMUTATION.apply(blockA), out, outPosition);
+      Bits.unpackLongToBigEndian(COMPILED_INVERSE_INITIAL_PERMUTATION.apply(blockB), out,
+          outPosition + BLOCK_BYTE_SIZE);
+    }
+
+    if (k < blockCount) {
+      long block = Bits.packBigEndianToLong(in, inOffset + k * BLOCK_BYTE_SIZE);
+      Bits.unpackLongToBigEndian(process(block, isDecryption), out, outOffset + k * BLOCK_BYTE_SIZE);
+    }
+  }
+
+  private void throwIfInvalidBlockSize(int length) {
+    if (length != BLOCK_BYTE_SIZE) {
       throw new IllegalArgumentException("DES crypto-system handles blocks of 64 bits");
     }
-    byte[] permutation = Bits.permute(data, INITIAL_PERMUTATION, MSB1_FIRST);
-    System.arraycopy(permutation, 0, data, 0, data.length);
   }
 
-  @Override
-  protected void executeAfterNetwork(byte[] data, boolean isEncryption) {
-    byte[] permutation = Bits.permute(data, INVERSE_INITIAL_PERMUTATION, MSB1_FIRST);
-    System.arraycopy(permutation, 0, data, 0, data.length);
+  private static int[] splitRoundKeys(byte[][] byteRoundKeys) {
+    int[] keys = new int[S_BOX_COUNT * byteRoundKeys.length];
+    for (int i = 0; i < byteRoundKeys.length; ++i) {
+      long key = Bits.packToLong(byteRoundKeys[i]);
+      for (int j = 0; j < S_BOX_COUNT; ++j) {
+        keys[S_BOX_COUNT * i + j] = (int) (key >>> (42 - 6 * j)) & 0x3F;
+      }
+    }
+    return keys;
   }
 
 
   public static final class Scheduler implements KeyScheduler {
 
-    private static final int ROUND_COUNT = 16;
-
     private static final int[] PREPARATORY_PERMUTATION = {
          1,  2,  3,  4,  5,  6,  7, 1,
          8,  9, 10, 11, 12, 13, 14, 1,
@@ -99,17 +224,23 @@ public final class DES extends FeistelNetwork {
         46, 42, 50, 36, 29, 32
     };
 
+    private static final CompiledPermutation COMPILED_PREPARATORY_PERMUTATION =
+        new CompiledPermutation(PREPARATORY_PERMUTATION, MSB1_FIRST, KEY_BYTE_SIZE);
+    private static final CompiledPermutation COMPILED_PERMUTED_CHOICE_1 =
+        new CompiledPermutation(PERMUTED_CHOICE_1, MSB1_FIRST, BLOCK_BYTE_SIZE);
+    private static final CompiledPermutation COMPILED_PERMUTED_CHOICE_2 =
+        new CompiledPermutation(PERMUTED_CHOICE_2, MSB1_FIRST, KEY_BYTE_SIZE);
+
     @Override
     public byte[][] schedule(byte[] key) {
       if (key.length != KEY_BYTE_SIZE) {
         throw new IllegalArgumentException("DES key scheduler handles keys of 56 bits");
       }
 
-      key = Bits.permute(key, PREPARATORY_PERMUTATION, MSB1_FIRST);
-      key = Bits.permute(key, PERMUTED_CHOICE_1, MSB1_FIRST);
-
       byte[][] keys = new byte[ROUND_COUNT][];
       long numberedKey = Bits.packToLong(key);
+      numberedKey = COMPILED_PREPARATORY_PERMUTATION.apply(numberedKey);
+      numberedKey = COMPILED_PERMUTED_CHOICE_1.apply(numberedKey);
       long leftPart = numberedKey >>> 28;
       long rightPart = numberedKey & 0xFFFFFFF;
 
@@ -121,7 +252,8 @@ public final class DES extends FeistelNetwork {
 
         numberedKey = leftPart << 28 | rightPart;
 
-        keys[i] = Bits.permute(Bits.unpackLong(numberedKey, KEY_BYTE_SIZE), PERMUTED_CHOICE_2, MSB1_FIRST);
+        keys[i] = Bits.unpackLong(COMPILED_PERMUTED_CHOICE_2.apply(numberedKey),
+            COMPILED_PERMUTED_CHOICE_2.getOutputByteSize());
       }
 
       return keys;
@@ -130,17 +262,6 @@ public final class DES extends FeistelNetwork {
 
   public static final class FeistelFunction implements CryptoOperation {
 
-    private static final int[] EXPANSION_PERMUTATION = {
-        32,  1,  2,  3,  4,  5,
-         4,  5,  6,  7,  8,  9,
-         8,  9, 10, 11, 12, 13,
-        12, 13, 14, 15, 16, 17,
-        16, 17, 18, 19, 20, 21,
-        20, 21, 22, 23, 24, 25,
-        24, 25, 26, 27, 28, 29,
-        28, 29, 30, 31, 32,  1
-    };
-
     private static final int[][][] SUBSTITUTION_TABLES = {
         {
           { 14,  4, 13, 1,  2, 15, 11,  8,  3, 10,  6, 12,  5,  9, 0,  7 },
@@ -203,25 +324,45 @@ public final class DES extends FeistelNetwork {
         22, 11,  4, 25
     };
 
+    // S-boxes merged with the P-permutation: SP_TABLES[i][x] = P(S_i(x) placed at i-th nibble)
+    private static final int[][] SP_TABLES = compileSubstitutionPermutation();
+
     @Override
     public byte[] apply(byte[] data, byte[] key) {
-      data = Bits.permute(data, EXPANSION_PERMUTATION, MSB1_FIRST);
-      long numberFormData = Bits.packToLong(data) ^ Bits.packToLong(key);
-      long numberFormTransformedData = 0;
-
-      for (int i = 0; i < SUBSTITUTION_TABLES.length; ++i) {
-        long tmp = numberFormData >>> (42 - 6 * i);
-        int row = (int) ((tmp >>> 4 & 0b10) | (tmp & 1));
-        int col = (int) (tmp >>> 1 & 0xF);
-
-        numberFormTransformedData <<= 4;
-        numberFormTransformedData += SUBSTITUTION_TABLES[i][row][col];
+      if (data.length != BLOCK_BYTE_SIZE / 2 || key.length != 6) {
+        throw new IllegalArgumentException("DES Feistel function handles 32-bit blocks and 48-bit keys");
       }
+      int[] keyChunks = splitRoundKeys(new byte[][]{ key });
+      int res = apply(Bits.packBigEndianToInt(data, 0), keyChunks, 0);
+      return Bits.unpackIntToBigEndian(res);
+    }
 
-      byte[] transformedData = Bits.unpackLong(numberFormTransformedData, BLOCK_BYTE_SIZE / 2);
-      transformedData = Bits.permute(transformedData, PERMUTATION, MSB1_FIRST);
+    static int apply(int data, int[] keyChunks, int keyOffset) {
+      // i-th 6-bit chunk of E(data) consists of data bits 4i..4i+5 (MSB1-numbered, cyclic)
+      int res = 0;
+      for (int i = 0; i < S_BOX_COUNT; ++i) {
+        int chunk = Integer.rotateLeft(data, 4 * i - 1) >>> 26;
+        res ^= SP_TABLES[i][chunk ^ keyChunks[keyOffset + i]];
+      }
+      return res;
+    }
 
-      return transformedData;
+    private static int[][] compileSubstitutionPermutation() {
+      int[][] tables = new int[S_BOX_COUNT][64];
+      for (int i = 0; i < S_BOX_COUNT; ++i) {
+        for (int x = 0; x < 64; ++x) {
+          int row = (x >>> 4 & 0b10) | (x & 1);
+          int col = x >>> 1 & 0xF;
+          int substituted = SUBSTITUTION_TABLES[i][row][col] << (28 - 4 * i);
+
+          int permuted = 0;
+          for (int j = 0; j < PERMUTATION.length; ++j) {
+            permuted |= (substituted >>> (32 - PERMUTATION[j]) & 1) << (31 - j);
+          }
+          tables[i][x] = permuted;
+        }
+      }
+      return tables;
     }
   }
 }
@@ -5,22 +5,27 @@ import org.reminstant.cryptography.CryptoOperation;
 import org.reminstant.cryptography.KeyScheduler;
 import org.reminstant.cryptography.SymmetricCryptoSystem;
 
-import java.util.Arrays;
-import java.util.function.IntUnaryOperator;
+import java.util.function.Function;
 
 public abstract class FeistelNetwork implements SymmetricCryptoSystem {
 
   private final KeyScheduler keyScheduler;
-  private final CryptoOperation roundFunction;
+  private final Function<byte[][], KeyedRoundFunction> roundFunctionFactory;
   private final int blockByteSize;
-  private byte[][] roundKeys;
-
-  private final int[] extractLeftPartRule;
-  private final int[] extractRightPartRule;
+  private final int halfBlockByteSize;
+  // replaced as a whole by setKey, so blocks never mix round keys and prepared state of different keys
+  private RoundState roundState;
 
   public FeistelNetwork(KeyScheduler keyScheduler, CryptoOperation roundFunction,
                         int blockByteSize, byte[] key) {
-    if (keyScheduler == null || roundFunction == null) {
+    this(keyScheduler, bindRoundFunction(roundFunction, blockByteSize), blockByteSize, key);
+  }
+
+  // roundFunctionFactory builds the round function of every new key from its round keys,
+  // it may prepare per-key state there instead of recomputing it for every block
+  protected FeistelNetwork(KeyScheduler keyScheduler, Function<byte[][], KeyedRoundFunction> roundFunctionFactory,
+                           int blockByteSize, byte[] key) {
+    if (keyScheduler == null || roundFunctionFactory == null) {
       throw new IllegalArgumentException("keyScheduler and roundFunction must be non-null");
     }
     if (blockByteSize % 2 == 1) {
@@ -28,39 +33,47 @@ public abstract class FeistelNetwork implements SymmetricCryptoSystem {
     }
 
     this.keyScheduler = keyScheduler;
-    this.roundFunction = roundFunction;
+    this.roundFunctionFactory = roundFunctionFactory;
     this.blockByteSize = blockByteSize;
-    this.roundKeys = keyScheduler.schedule(key);
-    this.extractLeftPartRule = new int[blockByteSize / 2];
-    this.extractRightPartRule = new int[blockByteSize / 2];
-
-    for (int i = 0; i < blockByteSize / 2; ++i) {
-      extractLeftPartRule[i] = i;
-      extractRightPartRule[i] = blockByteSize / 2 + i;
-    }
+    this.halfBlockByteSize = blockByteSize / 2;
+    this.roundState = scheduleRoundKeys(key);
   }
 
   @Override
   public final byte[] encrypt(byte[] data) {
-    byte[] res = Arrays.copyOf(data, data.length);
-    executeBeforeNetwork(res, true);
-    executeNetwork(res, IntUnaryOperator.identity());
-    executeAfterNetwork(res, true);
+    throwIfInvalidBlockSize(data.length);
+    byte[] res = new byte[blockByteSize];
+    encryptBlock(data, 0, res, 0);
     return res;
   }
 
   @Override
   public final byte[] decrypt(byte[] data) {
-    byte[] res = Arrays.copyOf(data, data.length);
-    executeBeforeNetwork(res, false);
-    executeNetwork(res, i -> roundKeys.length - 1 - i);
-    executeAfterNetwork(res, false);
+    throwIfInvalidBlockSize(data.length);
+    byte[] res = new byte[blockByteSize];
+    decryptBlock(data, 0, res, 0);
     return res;
   }
 
+  @Override
+  public final void encryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    System.arraycopy(in, inOffset, out, outOffset, blockByteSize);
+    executeBeforeNetwork(out, outOffset, true);
+    executeNetwork(out, outOffset, false);
+    executeAfterNetwork(out, outOffset, true);
+  }
+
+  @Override
+  public final void decryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    System.arraycopy(in, inOffset, out, outOffset, blockByteSize);
+    executeBeforeNetwork(out, outOffset, false);
+    executeNetwork(out, outOffset, true);
+    executeAfterNetwork(out, outOffset, false);
+  }
+
   @Override
   public final void setKey(byte[] key) {
-    this.roundKeys = keyScheduler.schedule(key);
+    this.roundState = scheduleRoundKeys(key);
   }
 
   @Override
@@ -69,33 +82,77 @@ public abstract class FeistelNetwork implements SymmetricCryptoSystem {
   }
 
   @SuppressWarnings("unused")
-  protected void executeBeforeNetwork(byte[] data, boolean isEncryption) {
+  protected void executeBeforeNetwork(byte[] data, int offset, boolean isEncryption) {
     // Override in subclasses
   }
 
   @SuppressWarnings("unused")
-  protected void executeAfterNetwork(byte[] data, boolean isEncryption) {
+  protected void executeAfterNetwork(byte[] data, int offset, boolean isEncryption) {
     // Override in subclasses
   }
 
 
-  private void executeNetwork(byte[] data, IntUnaryOperator keyIndexSelector) {
-    if (data.length != blockByteSize) {
+  /** Round function of one key: XORs the function of the given round applied to data half into target */
+  @FunctionalInterface
+  protected interface KeyedRoundFunction {
+    void applyXor(int round, byte[] data, int dataOffset, byte[] target, int targetOffset);
+  }
+
+
+  private static Function<byte[][], KeyedRoundFunction> bindRoundFunction(CryptoOperation roundFunction,
+                                                                           int blockByteSize) {
+    if (roundFunction == null) {
+      return null;
+    }
+    int halfBlockByteSize = blockByteSize / 2;
+    return roundKeys -> (round, data, dataOffset, target, targetOffset) ->
+        roundFunction.applyXor(data, dataOffset, halfBlockByteSize, roundKeys[round], target, targetOffset);
+  }
+
+  private RoundState scheduleRoundKeys(byte[] key) {
+    byte[][] keys = keyScheduler.schedule(key);
+    return new RoundState(keys.length, roundFunctionFactory.apply(keys));
+  }
+
+  private void executeNetwork(byte[] data, int offset, boolean isDecryption) {
+    RoundState state = roundState;
+    int roundCount = state.roundCount;
+    KeyedRoundFunction roundFunction = state.roundFunction;
+    int leftOffset = offset;
+    int rightOffset = offset + halfBlockByteSize;
+
+    // Halves are not moved: the half that has just been XORed becomes the right one
+    for (int i = 0; i < roundCount; ++i) {
+      int round = isDecryption ? roundCount - 1 - i : i;
+      roundFunction.applyXor(round, data, rightOffset, data, leftOffset);
+      int tmp = leftOffset;
+      leftOffset = rightOffset;
+      rightOffset = tmp;
+    }
+
+    // Result is (right, left)
+    if (rightOffset != offset) {
+      Bits.swapInPlace(data, offset, offset + halfBlockByteSize, halfBlockByteSize);
+    }
+  }
+
+  private void throwIfInvalidBlockSize(int length) {
+    if (length != blockByteSize) {
       throw new IllegalArgumentException(
           String.format("This Feistel network instance handles blocks of %s byte-size", blockByteSize));
     }
+  }
 
-    byte[] leftPart = Bits.permuteBytes(data, extractLeftPartRule);
-    byte[] rightPart = Bits.permuteBytes(data, extractRightPartRule);
 
-    for (int i = 0; i < roundKeys.length; ++i) {
-      int keyIndex = keyIndexSelector.applyAsInt(i);
-      byte[] functionValue = roundFunction.apply(rightPart, roundKeys[keyIndex]);
-      byte[] tmp = leftPart;
-      leftPart = rightPart;
-      rightPart = Bits.xor(tmp, functionValue);
-    }
+  /** Everything derived from one key; final fields make a published instance safe to share */
+  private static final class RoundState {
+
+    private final int roundCount;
+    private final KeyedRoundFunction roundFunction;
 
-    System.arraycopy(Bits.merge(rightPart, leftPart), 0, data, 0, data.length);
+    RoundState(int roundCount, KeyedRoundFunction roundFunction) {
+      this.roundCount = roundCount;
+      this.roundFunction = roundFunction;
+    }
   }
 }
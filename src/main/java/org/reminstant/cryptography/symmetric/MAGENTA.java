@@ -13,9 +13,7 @@ public final class MAGENTA extends FeistelNetwork {
   private static final byte GENERATING_POLYNOMIAL = (byte) 0x165; // x^8+x^6+x^5+x^2+1
   private static final int FUNCTION_E_ROUND_CNT = 3;
 
-  private static final int[] SWAP_BLOCK_HALVES_RULE = {
-      8, 9, 10, 11, 12, 13, 14, 15, 0, 1, 2, 3, 4, 5, 6, 7
-  };
+  private static final int HALF_BLOCK_BYTE_SIZE = BLOCK_BYTE_SIZE / 2;
 
 
   public static List<Integer> getKeyByteSizes() {
@@ -29,21 +27,16 @@ public final class MAGENTA extends FeistelNetwork {
 
 
   @Override
-  protected void executeBeforeNetwork(byte[] data, boolean isEncryption) {
-    if (data.length != BLOCK_BYTE_SIZE) {
-      throw new IllegalArgumentException("MAGENTA crypto-system handles blocks of 128 bits");
-    }
+  protected void executeBeforeNetwork(byte[] data, int offset, boolean isEncryption) {
     if (!isEncryption) {
-      byte[] swapped = Bits.permuteBytes(data, SWAP_BLOCK_HALVES_RULE);
-      System.arraycopy(swapped, 0, data, 0, data.length);
+      Bits.swapInPlace(data, offset, offset + HALF_BLOCK_BYTE_SIZE, HALF_BLOCK_BYTE_SIZE);
     }
   }
 
   @Override
-  protected void executeAfterNetwork(byte[] data, boolean isEncryption) {
+  protected void executeAfterNetwork(byte[] data, int offset, boolean isEncryption) {
     if (isEncryption) {
-      byte[] swapped = Bits.permuteBytes(data, SWAP_BLOCK_HALVES_RULE);
-      System.arraycopy(swapped, 0, data, 0, data.length);
+      Bits.swapInPlace(data, offset, offset + HALF_BLOCK_BYTE_SIZE, HALF_BLOCK_BYTE_SIZE);
     }
   }
 
@@ -89,61 +82,91 @@ public final class MAGENTA extends FeistelNetwork {
 
   public static final class FeistelFunction implements CryptoOperation {
 
-    private static final int[] LEFT_EXTRACTOR  = { 0, 1,  2,  3,  4,  5,  6,  7 };
-    private static final int[] RIGHT_EXTRACTOR = { 8, 9, 10, 11, 12, 13, 14, 15 };
-    private static final int[] EVEN_EXTRACTOR  = { 0, 2,  4,  6,  8, 10, 12, 14 };
-    private static final int[] ODD_EXTRACTOR   = { 1, 3,  5,  7,  9, 11, 13, 15 };
+    // A_TABLE[(x << 8) | y] = A(x, y) = f(x ^ f(y)); key-independent, so shared by all instances
+    private static final byte[] A_TABLE = buildATable();
 
-    private final byte[] fTable;
+    // 16-byte work buffers per thread, so the function does not allocate per call
+    private final ThreadLocal<byte[][]> buffers;
 
     public FeistelFunction() {
-      fTable = new byte[256];
+      buffers = ThreadLocal.withInitial(() -> new byte[3][BLOCK_BYTE_SIZE]);
+    }
 
+    private static byte[] buildATable() {
+      byte[] fTable = new byte[256];
       fTable[0] = 1;
       for (int i = 1; i < fTable.length - 1; ++i) {
         fTable[i] = GaloisField256.product(fTable[i-1], PRIMITIVE_ELEMENT, GENERATING_POLYNOMIAL);
       }
       fTable[fTable.length - 1] = 0;
+
+      byte[] aTable = new byte[256 * 256];
+      for (int x = 0; x < 256; ++x) {
+        for (int y = 0; y < 256; ++y) {
+          aTable[(x << 8) | y] = fTable[x ^ (fTable[y] & 0xFF)];
+        }
+      }
+      return aTable;
     }
 
     @Override
     public byte[] apply(byte[] data, byte[] key) {
-      return executeFunctionE(Bits.merge(data, key));
+      byte[] res = new byte[HALF_BLOCK_BYTE_SIZE];
+      applyXor(data, 0, data.length, key, res, 0);
+      return res;
     }
 
-    private byte executeFunctionA(byte x, byte y) {
-      byte fy = fTable[Byte.toUnsignedInt(y)];
-      return fTable[(x & 0xFF) ^ (fy & 0xFF)];
+    @Override
+    public void applyXor(byte[] data, int dataOffset, int dataLength,
+                         byte[] key, byte[] target, int targetOffset) {
+      byte[][] buf = buffers.get();
+      byte[] x = buf[0];
+      System.arraycopy(data, dataOffset, x, 0, HALF_BLOCK_BYTE_SIZE);
+      System.arraycopy(key, 0, x, HALF_BLOCK_BYTE_SIZE, HALF_BLOCK_BYTE_SIZE);
+
+      byte[] c = executeFunctionE(x, buf[1], buf[2]);
+
+      for (int i = 0; i < HALF_BLOCK_BYTE_SIZE; ++i) {
+        target[targetOffset + i] ^= c[2*i];
+      }
+    }
+
+    // result = PE(x): the interleaving of A(x[i], x[i+8]) and A(x[i+8], x[i])
+    private static void executeFunctionP(byte[] x, byte[] result) {
+      for (int i = 0; i < HALF_BLOCK_BYTE_SIZE; ++i) {
+        int l = x[i] & 0xFF;
+        int r = x[i+8] & 0xFF;
+        result[2*i  ] = A_TABLE[(l << 8) | r];
+        result[2*i+1] = A_TABLE[(r << 8) | l];
+      }
     }
 
-    private byte[] executeFunctionP(byte[] x) {
-      byte[] result = new byte[16];
-      for (int i = 0; 2*i < result.length; ++i) {
-        result[2*i  ] = executeFunctionA(x[i], x[i+8]);
-        result[2*i+1] = executeFunctionA(x[i+8], x[i]);
+    // result = PE(x ^ (even bytes of c || odd bytes of c)), the shuffle is done while reading
+    private static void executeFunctionP(byte[] x, byte[] c, byte[] result) {
+      for (int i = 0; i < HALF_BLOCK_BYTE_SIZE; ++i) {
+        int l = (x[i] ^ c[2*i]) & 0xFF;
+        int r = (x[i+8] ^ c[2*i+1]) & 0xFF;
+        result[2*i  ] = A_TABLE[(l << 8) | r];
+        result[2*i+1] = A_TABLE[(r << 8) | l];
       }
-      return result;
     }
 
-    private byte[] executeFunctionT(byte[] x) {
-      x = executeFunctionP(x);
-      x = executeFunctionP(x);
-      x = executeFunctionP(x);
-      x = executeFunctionP(x);
-      return x;
+    // Finishes T(x) after its first P pass has been written to tmp; T(x) is written to c
+    private static void completeFunctionT(byte[] c, byte[] tmp) {
+      executeFunctionP(tmp, c);
+      executeFunctionP(c, tmp);
+      executeFunctionP(tmp, c);
     }
 
-    private byte[] executeFunctionE(byte[] x) {
-      byte[] c = executeFunctionT(x);
-      for (int i = 1; i < FUNCTION_E_ROUND_CNT; ++i) {
-        byte[] leftX = Bits.permuteBytes(x, LEFT_EXTRACTOR);
-        byte[] rightX = Bits.permuteBytes(x, RIGHT_EXTRACTOR);
-        byte[] evenC = Bits.permuteBytes(c, EVEN_EXTRACTOR);
-        byte[] oddC = Bits.permuteBytes(c, ODD_EXTRACTOR);
-        byte[] tInput = Bits.merge(Bits.xor(leftX, evenC), Bits.xor(rightX, oddC));
-        c = executeFunctionT(tInput);
+    // c receives the full last T-value, E(x) is its even bytes; tmp is used as a work buffer
+    private static byte[] executeFunctionE(byte[] x, byte[] c, byte[] tmp) {
+      executeFunctionP(x, tmp);
+      completeFunctionT(c, tmp);
+      for (int r = 1; r < FUNCTION_E_ROUND_CNT; ++r) {
+        executeFunctionP(x, c, tmp);
+        completeFunctionT(c, tmp);
       }
-      return Bits.permuteBytes(c, EVEN_EXTRACTOR);
+      return c;
     }
   }
 }
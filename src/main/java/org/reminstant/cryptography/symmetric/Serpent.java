@@ -12,27 +12,15 @@ public final class Serpent implements SymmetricCryptoSystem {
   private static final int BLOCK_BYTE_SIZE = 16;
   private static final List<Integer> KEY_BYTE_SIZES = List.of(16, 24, 32);
 
-  private static final int[][] S_BOXES = {
-      {  3,  8, 15,  1, 10,  6,  5, 11, 14, 13,  4,  2,  7,  0,  9, 12 },
-      { 15, 12,  2,  7,  9,  0,  5, 10,  1, 11, 14,  8,  6, 13,  3,  4 },
-      {  8,  6,  7,  9,  3, 12, 10, 15, 13,  1, 14,  4,  0, 11,  5,  2 },
-      {  0, 15, 11,  8, 12,  9,  6,  3, 13,  1,  2,  4, 10,  7,  5, 14 },
-      {  1, 15,  8,  3, 12,  0, 11,  6,  2,  5,  4, 10,  9, 14,  7, 13 },
-      { 15,  5,  2, 11,  4, 10,  9, 12,  0,  3, 14,  8, 13,  6,  7,  1 },
-      {  7,  2, 12,  5,  8,  4,  6, 11, 14,  9,  1, 15, 13,  3, 10,  0 },
-      {  1, 13, 15,  0, 14,  8,  2, 11,  7,  4, 12, 10,  9,  3,  5,  6 },
-  };
-
-  private static final int[][] INV_S_BOXES = {
-      { 13,  3, 11,  0, 10,  6,  5, 12,  1, 14,  4,  7, 15,  9,  8,  2 },
-      {  5,  8,  2, 14, 15,  6, 12,  3, 11,  4,  7,  9,  1, 13, 10,  0 },
-      { 12,  9, 15,  4, 11, 14,  1,  2,  0,  3,  6, 13,  5,  8, 10,  7 },
-      {  0,  9, 10,  7, 11, 14,  6, 13,  3,  5, 12,  2,  4,  8, 15,  1 },
-      {  5,  0,  8,  3, 10,  9,  7, 14,  2, 12, 11,  6,  4, 15, 13,  1 },
-      {  8, 15,  2,  9,  4,  1, 13, 14, 11,  6,  5,  3,  7, 12, 10,  0 },
-      { 15, 10,  1, 13,  5,  3,  6,  0,  4,  9, 14,  7,  2, 12,  8, 11 },
-      {  3,  0,  6, 13,  9, 14, 15,  8,  5, 12, 11,  7, 10,  1,  4,  2 },
-  };
+  private static final int S_BOX_COUNT = 8;
+
+  // Batches carry this many independent block states through each round together,
+  // so the rounds of different blocks can overlap in the CPU pipeline
+  private static final int INTERLEAVED_BLOCK_COUNT = 4;
+
+  // Per-thread 4-word states of interleaved blocks, so block operations do not allocate
+  private static final ThreadLocal<int[][]> WORK_BUFFER =
+      ThreadLocal.withInitial(() -> new int[INTERLEAVED_BLOCK_COUNT][4]);
 
   private final KeyScheduler keyScheduler;
   private final int[][] roundKeys;
@@ -54,45 +42,113 @@ public final class Serpent implements SymmetricCryptoSystem {
 
   @Override
   public byte[] encrypt(byte[] data) {
-    if (data.length != BLOCK_BYTE_SIZE) {
-      throw new IllegalArgumentException("Serpent crypto-system handles blocks of 128 bits");
-    }
+    throwIfInvalidBlockSize(data.length);
+    byte[] res = new byte[BLOCK_BYTE_SIZE];
+    encryptBlock(data, 0, res, 0);
+    return res;
+  }
 
-    int[] x = Bits.repackLittleEndianToInt(data);
+  @Override
+  public byte[] decrypt(byte[] data) {
+    throwIfInvalidBlockSize(data.length);
+    byte[] res = new byte[BLOCK_BYTE_SIZE];
+    decryptBlock(data, 0, res, 0);
+    return res;
+  }
+
+  @Override
+  public void encryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    int[] x = WORK_BUFFER.get()[0];
+    int[][] keys = roundKeys;
+    unpackWords(in, inOffset, x);
 
     for (int i = 0; i < 31; ++i) {
-      Bits.xorInPlace(x, roundKeys[i]);
-      executeSBox(x, S_BOXES[i % S_BOXES.length]);
+      xorRoundKey(x, keys[i]);
+      executeSBox(x, i % S_BOX_COUNT);
       executeLinearTransformation(x);
     }
-    Bits.xorInPlace(x, roundKeys[31]);
-    executeSBox(x, S_BOXES[7]);
-    Bits.xorInPlace(x, roundKeys[32]);
+    xorRoundKey(x, keys[31]);
+    executeSBox7(x);
+    xorRoundKey(x, keys[32]);
 
-    data = Bits.repackIntToLittleEndian(x);
-    return data;
+    packWords(x, out, outOffset);
   }
 
   @Override
-  public byte[] decrypt(byte[] data) {
-    if (data.length != BLOCK_BYTE_SIZE) {
-      throw new IllegalArgumentException("Serpent crypto-system handles blocks of 128 bits");
-    }
+  public void decryptBlock(byte[] in, int inOffset, byte[] out, int outOffset) {
+    int[] x = WORK_BUFFER.get()[0];
+    int[][] keys = roundKeys;
+    unpackWords(in, inOffset, x);
 
-    int[] x = Bits.repackLittleEndianToInt(data);
-
-    Bits.xorInPlace(x, roundKeys[32]);
-    executeSBox(x, INV_S_BOXES[7]);
-    Bits.xorInPlace(x, roundKeys[31]);
+    xorRoundKey(x, keys[32]);
+    executeInvSBox7(x);
+    xorRoundKey(x, keys[31]);
 
     for (int i = 30; i >= 0; --i) {
       executeInvLinearTransformation(x);
-      executeSBox(x, INV_S_BOXES[i % INV_S_BOXES.length]);
-      Bits.xorInPlace(x, roundKeys[i]);
+      executeInvSBox(x, i % S_BOX_COUNT);
+      xorRoundKey(x, keys[i]);
+    }
+
+    packWords(x, out, outOffset);
+  }
+
+  @Override
+  public void encryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    int[][] states = WORK_BUFFER.get();
+    int[][] keys = roundKeys;
+
+    for (int k = 0; k < blockCount; k += INTERLEAVED_BLOCK_COUNT) {
+      int stateCount = Math.min(INTERLEAVED_BLOCK_COUNT, blockCount - k);
+      unpackStates(in, inOffset + k * BLOCK_BYTE_SIZE, states, stateCount);
+
+      for (int i = 0; i < 31; ++i) {
+        int sBoxIdx = i % S_BOX_COUNT;
+        for (int j = 0; j < stateCount; ++j) {
+          int[] x = states[j];
+          xorRoundKey(x, keys[i]);
+          executeSBox(x, sBoxIdx);
+          executeLinearTransformation(x);
+        }
+      }
+      for (int j = 0; j < stateCount; ++j) {
+        int[] x = states[j];
+        xorRoundKey(x, keys[31]);
+        executeSBox7(x);
+        xorRoundKey(x, keys[32]);
+      }
+
+      packStates(states, stateCount, out, outOffset + k * BLOCK_BYTE_SIZE);
     }
+  }
+
+  @Override
+  public void decryptBlocks(byte[] in, int inOffset, byte[] out, int outOffset, int blockCount) {
+    int[][] states = WORK_BUFFER.get();
+    int[][] keys = roundKeys;
+
+    for (int k = 0; k < blockCount; k += INTERLEAVED_BLOCK_COUNT) {
+      int stateCount = Math.min(INTERLEAVED_BLOCK_COUNT, blockCount - k);
+      unpackStates(in, inOffset + k * BLOCK_BYTE_SIZE, states, stateCount);
+
+      for (int j = 0; j < stateCount; ++j) {
+        int[] x = states[j];
+        xorRoundKey(x, keys[32]);
+        executeInvSBox7(x);
+        xorRoundKey(x, keys[31]);
+      }
+      for (int i = 30; i >= 0; --i) {
+        int sBoxIdx = i % S_BOX_COUNT;
+        for (int j = 0; j < stateCount; ++j) {
+          int[] x = states[j];
+          executeInvLinearTransformation(x);
+          executeInvSBox(x, sBoxIdx);
+          xorRoundKey(x, keys[i]);
+        }
+      }
 
-    data = Bits.repackIntToLittleEndian(x);
-    return data;
+      packStates(states, stateCount, out, outOffset + k * BLOCK_BYTE_SIZE);
+    }
   }
 
   @Override
@@ -108,33 +164,332 @@ public final class Serpent implements SymmetricCryptoSystem {
   }
 
 
-  public static void executeSBox(int[] x, int[] sBox) {
-    for (int i = 0; i < Integer.SIZE; ++i) {
-      int x0Bit = (x[0] >>> (31 - i)) & 1;
-      int x1Bit = (x[1] >>> (31 - i)) & 1;
-      int x2Bit = (x[2] >>> (31 - i)) & 1;
-      int x3Bit = (x[3] >>> (31 - i)) & 1;
+  private static void unpackWords(byte[] data, int offset, int[] x) {
+    for (int i = 0; i < x.length; ++i) {
+      x[i] = Bits.packLittleEndianToInt(data, offset + 4*i);
+    }
+  }
+
+  private static void packWords(int[] x, byte[] data, int offset) {
+    for (int i = 0; i < x.length; ++i) {
+      Bits.unpackIntToLittleEndian(x[i], data, offset + 4*i);
+    }
+  }
 
-      int key = x0Bit | (x1Bit << 1) | (x2Bit << 2) | (x3Bit << 3);
-      int val = sBox[key];
+  // All blocks are read before any is written, so in and out may be the same region
+  private static void unpackStates(byte[] data, int offset, int[][] states, int stateCount) {
+    for (int j = 0; j < stateCount; ++j) {
+      unpackWords(data, offset + j * BLOCK_BYTE_SIZE, states[j]);
+    }
+  }
 
-      for (int j = 0; j < 4; ++j) {
-        x[j] &= ~(1 << (31 - i));
-        x[j] |= ((val >>> j) & 1) << (31 - i);
-      }
+  private static void packStates(int[][] states, int stateCount, byte[] data, int offset) {
+    for (int j = 0; j < stateCount; ++j) {
+      packWords(states[j], data, offset + j * BLOCK_BYTE_SIZE);
     }
   }
 
-//  public static void executeSBoxPerm(int[] x, int[] sBox) {
-//    for (int i = 0; i < x.length; ++i) {
-//      for (int j = 0; 4*j < Integer.SIZE; ++j) {
-//        int key = (x[i] >>> (28 - 4*j)) & 0xF;
-//        int val = sBox[key];
-//        x[i] &= ~(0xF << (28 - 4*j));
-//        x[i] |= val << (28 - 4*j);
-//      }
-//    }
-//  }
+  private static void xorRoundKey(int[] x, int[] roundKey) {
+    x[0] ^= roundKey[0];
+    x[1] ^= roundKey[1];
+    x[2] ^= roundKey[2];
+    x[3] ^= roundKey[3];
+  }
+
+  private static void throwIfInvalidBlockSize(int length) {
+    if (length != BLOCK_BYTE_SIZE) {
+      throw new IllegalArgumentException("Serpent crypto-system handles blocks of 128 bits");
+    }
+  }
+
+  // S-boxes are evaluated in bitslice mode: bit i of x[0..3] forms the i-th 4-bit input,
+  // so each S-box is a fixed circuit of boolean gates over the whole words
+  // (see D.A. Osvik, "Speeding up Serpent")
+
+  public static void executeSBox(int[] x, int sBoxIdx) {
+    switch (sBoxIdx) {
+      case 0 -> executeSBox0(x);
+      case 1 -> executeSBox1(x);
+      case 2 -> executeSBox2(x);
+      case 3 -> executeSBox3(x);
+      case 4 -> executeSBox4(x);
+      case 5 -> executeSBox5(x);
+      case 6 -> executeSBox6(x);
+      case 7 -> executeSBox7(x);
+      default -> throw new IllegalArgumentException("Serpent S-box index must be in range [0, 8)");
+    }
+  }
+
+  public static void executeInvSBox(int[] x, int sBoxIdx) {
+    switch (sBoxIdx) {
+      case 0 -> executeInvSBox0(x);
+      case 1 -> executeInvSBox1(x);
+      case 2 -> executeInvSBox2(x);
+      case 3 -> executeInvSBox3(x);
+      case 4 -> executeInvSBox4(x);
+      case 5 -> executeInvSBox5(x);
+      case 6 -> executeInvSBox6(x);
+      case 7 -> executeInvSBox7(x);
+      default -> throw new IllegalArgumentException("Serpent S-box index must be in range [0, 8)");
+    }
+  }
+
+  private static void executeSBox0(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = a ^ d;
+    int t3 = c ^ t1;
+    int t4 = b ^ t3;
+    x[3] = (a & d) ^ t4;
+    int t7 = a ^ (b & t1);
+    x[2] = t4 ^ (c | t7);
+    int t12 = x[3] & (t3 ^ t7);
+    x[1] = ~t3 ^ t12;
+    x[0] = t12 ^ ~t7;
+  }
+
+  private static void executeInvSBox0(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = ~a;
+    int t2 = a ^ b;
+    int t4 = d ^ (t1 | t2);
+    int t5 = c ^ t4;
+    x[2] = t2 ^ t5;
+    int t8 = t1 ^ (d & t2);
+    x[1] = t4 ^ (x[2] & t8);
+    x[3] = (a & t4) ^ (t5 | x[1]);
+    x[0] = x[3] ^ t5 ^ t8;
+  }
+
+  private static void executeSBox1(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t2 = b ^ ~a;
+    int t5 = c ^ (a | t2);
+    x[2] = d ^ t5;
+    int t7 = b ^ (d | t2);
+    int t8 = t2 ^ x[2];
+    x[3] = t8 ^ (t5 & t7);
+    int t11 = t5 ^ t7;
+    x[1] = x[3] ^ t11;
+    x[0] = t5 ^ (t8 & t11);
+  }
+
+  private static void executeInvSBox1(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = b ^ d;
+    int t3 = a ^ (b & t1);
+    int t4 = t1 ^ t3;
+    x[3] = c ^ t4;
+    int t7 = b ^ (t1 & t3);
+    x[1] = t3 ^ (x[3] | t7);
+    int t10 = ~x[1];
+    int t11 = x[3] ^ t7;
+    x[0] = t10 ^ t11;
+    x[2] = t4 ^ (t10 | t11);
+  }
+
+  private static void executeSBox2(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = ~a;
+    int t2 = b ^ d;
+    x[0] = t2 ^ (c & t1);
+    int t5 = c ^ t1;
+    int t7 = b & (c ^ x[0]);
+    x[3] = t5 ^ t7;
+    x[2] = a ^ ((d | t7) & (x[0] | t5));
+    x[1] = t2 ^ x[3] ^ x[2] ^ (d | t1);
+  }
+
+  private static void executeInvSBox2(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = b ^ d;
+    int t3 = a ^ c;
+    int t4 = c ^ t1;
+    x[0] = t3 ^ (b & t4);
+    int t8 = d ^ (a | ~t1);
+    x[3] = t1 ^ (t3 | t8);
+    int t11 = ~t4;
+    int t12 = x[0] | x[3];
+    x[1] = t11 ^ t12;
+    x[2] = (d & t11) ^ t3 ^ t12;
+  }
+
+  private static void executeSBox3(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = a ^ b;
+    int t3 = a | d;
+    int t4 = c ^ d;
+    int t6 = (a & c) | (t1 & t3);
+    x[2] = t4 ^ t6;
+    int t9 = t6 ^ b ^ t3;
+    x[0] = t1 ^ (t4 & t9);
+    int t12 = x[2] & x[0];
+    x[1] = t9 ^ t12;
+    x[3] = (b | d) ^ t4 ^ t12;
+  }
+
+  private static void executeInvSBox3(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = a | b;
+    int t2 = b ^ c;
+    int t4 = a ^ (b & t2);
+    int t5 = c ^ t4;
+    int t6 = d | t4;
+    x[0] = t2 ^ t6;
+    int t9 = d ^ (t2 | t6);
+    x[2] = t5 ^ t9;
+    int t11 = t1 ^ t9;
+    x[3] = t4 ^ (x[0] & t11);
+    x[1] = x[3] ^ x[0] ^ t11;
+  }
+
+  private static void executeSBox4(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = a ^ d;
+    int t3 = c ^ (d & t1);
+    int t4 = b | t3;
+    x[3] = t1 ^ t4;
+    int t6 = ~b;
+    x[0] = t3 ^ (t1 | t6);
+    int t10 = t1 ^ t6;
+    x[2] = (a & x[0]) ^ (t4 & t10);
+    x[1] = a ^ t3 ^ (t10 & x[2]);
+  }
+
+  private static void executeInvSBox4(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t3 = b ^ (a & (c | d));
+    int t5 = c ^ (a & t3);
+    x[1] = d ^ t5;
+    int t7 = ~a;
+    x[3] = t3 ^ (t5 & x[1]);
+    int t11 = d ^ (x[1] | t7);
+    x[0] = x[3] ^ t11;
+    x[2] = (t3 & t11) ^ x[1] ^ t7;
+  }
+
+  private static void executeSBox5(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = ~a;
+    int t2 = a ^ b;
+    int t3 = a ^ d;
+    x[0] = c ^ t1 ^ (t2 | t3);
+    int t7 = d & x[0];
+    x[1] = t7 ^ t2 ^ x[0];
+    int t12 = t3 ^ (t1 | x[0]);
+    x[2] = (t2 | t7) ^ t12;
+    x[3] = b ^ t7 ^ (x[1] & t12);
+  }
+
+  private static void executeInvSBox5(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = ~c;
+    int t3 = d ^ (b & t1);
+    int t4 = a & t3;
+    x[3] = t4 ^ b ^ t1;
+    int t7 = b | x[3];
+    x[1] = t3 ^ (a & t7);
+    int t10 = a | d;
+    x[0] = t10 ^ t1 ^ t7;
+    x[2] = (b & t10) ^ (t4 | (a ^ c));
+  }
+
+  private static void executeSBox6(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t2 = a ^ d;
+    int t3 = b ^ t2;
+    int t5 = c ^ (~a | t2);
+    x[1] = b ^ t5;
+    int t8 = d ^ (t2 | x[1]);
+    x[2] = t3 ^ (t5 & t8);
+    int t11 = t5 ^ t8;
+    x[0] = x[2] ^ t11;
+    x[3] = ~t5 ^ (t3 & t11);
+  }
+
+  private static void executeInvSBox6(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = ~a;
+    int t2 = a ^ b;
+    int t3 = c ^ t2;
+    int t5 = d ^ (c | t1);
+    x[1] = t3 ^ t5;
+    int t8 = t2 ^ (t3 & t5);
+    x[3] = t5 ^ (b | t8);
+    int t11 = b | x[3];
+    x[0] = t8 ^ t11;
+    x[2] = (d & t1) ^ t3 ^ t11;
+  }
+
+  private static void executeSBox7(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t1 = b ^ c;
+    int t3 = d ^ (c & t1);
+    int t4 = a ^ t3;
+    x[1] = b ^ (t4 & (d | t1));
+    x[3] = t1 ^ (a & t4);
+    int t11 = t4 ^ (t3 | x[1]);
+    x[2] = t3 ^ (x[3] & t11);
+    x[0] = ~t11 ^ (x[3] & x[2]);
+  }
+
+  private static void executeInvSBox7(int[] x) {
+    int a = x[0];
+    int b = x[1];
+    int c = x[2];
+    int d = x[3];
+    int t3 = c | (a & b);
+    int t4 = d & (a | b);
+    x[3] = t3 ^ t4;
+    int t7 = b ^ t4;
+    x[1] = a ^ (t7 | (x[3] ^ ~d));
+    x[0] = c ^ t7 ^ (d | x[1]);
+    x[2] = t3 ^ x[1] ^ x[0] ^ (a & x[3]);
+  }
 
   private static void executeLinearTransformation(int[] x) {
     x[0] = Integer.rotateLeft(x[0], 13);
@@ -196,7 +551,7 @@ public final class Serpent implements SymmetricCryptoSystem {
       int[] tmp = new int[4];
       for (int i = 0; 4*i < 132; ++i) {
         System.arraycopy(preKeys, 4*i, tmp, 0, tmp.length);
-        executeSBox(tmp, S_BOXES[Math.floorMod(3 - i, S_BOXES.length)]);
+        executeSBox(tmp, Math.floorMod(3 - i, S_BOX_COUNT));
         System.arraycopy(tmp, 0, preKeys, 4*i, tmp.length);
       }
 
@@ -0,0 +1,145 @@
+package org.reminstant.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BoundedExecutorTest {
+
+  @DataProvider
+  Object[][] executorModes() {
+    return new Object[][] {
+        {true},
+        {false}
+    };
+  }
+
+  @Test(dataProvider = "executorModes")
+  void testInFlightLimit(boolean isBlocking) throws InterruptedException, TimeoutException {
+    // SETUP
+    int maxInFlight = 4;
+    BoundedExecutor executor = newExecutor(isBlocking, maxInFlight);
+    AtomicInteger inFlightCount = new AtomicInteger();
+    AtomicInteger maxObservedCount = new AtomicInteger();
+
+    // EXECUTION
+    List<ChainableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 200; ++i) {
+      futures.add(ChainableFuture.runStronglyAsync(() -> {
+        maxObservedCount.accumulateAndGet(inFlightCount.incrementAndGet(), Math::max);
+        ConcurrentUtil.sleepSafely(2);
+        inFlightCount.decrementAndGet();
+      }, executor));
+    }
+    ChainableFuture.awaitAllStronglyAsync(futures).waitCompletion(1, TimeUnit.MINUTES);
+    executor.shutdown();
+
+    // ASSERTION
+    Assert.assertTrue(futures.stream().allMatch(f -> f.state() == Future.State.SUCCESS));
+    Assert.assertTrue(maxObservedCount.get() <= maxInFlight);
+    Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+  }
+
+  @Test
+  void testQueueingDoesNotBlockSubmitter() throws InterruptedException, TimeoutException {
+    // SETUP
+    BoundedExecutor executor = newExecutor(false, 1);
+    CountDownLatch latch = new CountDownLatch(1);
+
+    // EXECUTION
+    ChainableFuture<Void> first = ChainableFuture.runStronglyAsync(latch::await, executor);
+    List<ChainableFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      futures.add(ChainableFuture.runStronglyAsync(() -> { }, executor));
+    }
+    int pendingCount = executor.getPendingTaskCount();
+    latch.countDown();
+    ChainableFuture.awaitAllStronglyAsync(futures).waitCompletion(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(pendingCount, 100);
+    Assert.assertEquals(first.state(), Future.State.SUCCESS);
+    Assert.assertTrue(futures.stream().allMatch(f -> f.state() == Future.State.SUCCESS));
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testBlockingBlocksSubmitter() throws InterruptedException {
+    // SETUP
+    BoundedExecutor executor = newExecutor(true, 1);
+    CountDownLatch latch = new CountDownLatch(1);
+    ChainableFuture.runStronglyAsync(latch::await, executor);
+
+    // EXECUTION
+    Thread submitter = new Thread(() -> executor.execute(() -> { }));
+    submitter.start();
+    ConcurrentUtil.sleepSafely(200);
+    Thread.State blockedState = submitter.getState();
+    latch.countDown();
+    submitter.join(TimeUnit.MINUTES.toMillis(1));
+
+    // ASSERTION
+    Assert.assertEquals(blockedState, Thread.State.WAITING);
+    Assert.assertFalse(submitter.isAlive());
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testChainDoesNotDeadlockOnSingleSlot() throws ExecutionException, InterruptedException, TimeoutException {
+    // SETUP
+    BoundedExecutor executor = newExecutor(true, 1);
+
+    // EXECUTION
+    int res = ChainableFuture.supplyStronglyAsync(() -> 1, executor)
+        .thenStronglyMapAsync(x -> x + 1)
+        .thenStronglyComposeAsync(x -> ChainableFuture.supplyStronglyAsync(() -> x + 1, executor))
+        .get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(res, 3);
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testShutdownRunsAcceptedTasks() throws InterruptedException {
+    // SETUP
+    BoundedExecutor executor = newExecutor(false, 2);
+    AtomicInteger runCount = new AtomicInteger();
+
+    // EXECUTION
+    for (int i = 0; i < 50; ++i) {
+      executor.execute(() -> {
+        ConcurrentUtil.sleepSafely(1);
+        runCount.incrementAndGet();
+      });
+    }
+    executor.shutdown();
+    boolean isTerminated = executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertTrue(isTerminated);
+    Assert.assertTrue(executor.isTerminated());
+    Assert.assertEquals(runCount.get(), 50);
+    Assert.assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+  }
+
+  @Test
+  void testIllegalLimit() {
+    // ASSERTION
+    Assert.assertThrows(IllegalArgumentException.class, () -> newExecutor(false, 0));
+  }
+
+
+
+  private BoundedExecutor newExecutor(boolean isBlocking, int maxInFlight) {
+    ExecutorService delegate = Executors.newVirtualThreadPerTaskExecutor();
+    return isBlocking
+        ? BoundedExecutor.blocking(delegate, maxInFlight)
+        : BoundedExecutor.queueing(delegate, maxInFlight);
+  }
+}
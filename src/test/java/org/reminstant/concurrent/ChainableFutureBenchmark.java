@@ -90,6 +90,54 @@ public class ChainableFutureBenchmark {
     }
   }
 
+  // Stages are cheap, so the cost is dominated by keeping the pending part of the chain
+  @State(Scope.Benchmark)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Fork(value = 1)
+  @Threads(1)
+  public static class LongChainBenchmark {
+
+    @Param({"1000", "100000"})
+    public int stageCount;
+
+    @Benchmark
+    public Integer testChainableFutureLongChain() throws ExecutionException, InterruptedException {
+      CountDownLatch startLatch = new CountDownLatch(1);
+      ChainableFuture<Integer> f = ChainableFuture.supplyStronglyAsync(() -> {
+        startLatch.await();
+        return 0;
+      });
+      for (int i = 0; i < stageCount; ++i) {
+        f = f.thenStronglyMapAsync(x -> x + 1);
+      }
+
+      startLatch.countDown();
+      return f.get();
+    }
+
+    @Benchmark
+    public Integer testCompletableFutureLongChain() {
+      CountDownLatch startLatch = new CountDownLatch(1);
+      CompletableFuture<Integer> f = CompletableFuture.supplyAsync(() -> {
+        try {
+          startLatch.await();
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+        return 0;
+      });
+      for (int i = 0; i < stageCount; ++i) {
+        f = f.thenApplyAsync(x -> x + 1);
+      }
+
+      startLatch.countDown();
+      return f.join();
+    }
+  }
+
   @State(Scope.Benchmark)
   @BenchmarkMode(Mode.AverageTime)
   @OutputTimeUnit(TimeUnit.SECONDS)
@@ -99,6 +147,8 @@ public class ChainableFutureBenchmark {
   @Threads(1)
   public static class ParallelProcessingBenchmark {
 
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     int parallelProcessingIterCnt;
 
     @Setup
@@ -155,5 +205,68 @@ public class ChainableFutureBenchmark {
           .filter(s -> !s.contains("1100"))
           .forEach(blackhole::consume);
     }
+
+    @Benchmark
+    public void testChainableFutureParallelFor(Blackhole blackhole)
+        throws InterruptedException, TimeoutException {
+      ChainableFuture.parallelFor(0, parallelProcessingIterCnt, CHUNK_SIZE, (from, to) -> {
+        for (long j = from; j < to; ++j) {
+          String s = Integer.toBinaryString((int) j);
+          if (s.contains("1100")) continue;
+          blackhole.consume(s.hashCode());
+        }
+      }, ForkJoinPool.commonPool()).waitCompletion(1, TimeUnit.MINUTES);
+    }
+
+    @Benchmark
+    public void testForkJoinPoolParallelProcessing(Blackhole blackhole) {
+      ForkJoinPool.commonPool().invoke(new RangeAction(0, parallelProcessingIterCnt, blackhole));
+    }
+
+    @Benchmark
+    public long testChainableFutureParallelReduce() throws ExecutionException, InterruptedException {
+      return ChainableFuture.parallelReduce(0, parallelProcessingIterCnt, CHUNK_SIZE, 0L, (from, to) -> {
+        long res = 0;
+        for (long j = from; j < to; ++j) {
+          res += Integer.toBinaryString((int) j).hashCode();
+        }
+        return res;
+      }, Long::sum, ForkJoinPool.commonPool()).get();
+    }
+
+    @Benchmark
+    public long testParallelStreamParallelReduce() {
+      return IntStream.range(0, parallelProcessingIterCnt).parallel()
+          .mapToLong(j -> Integer.toBinaryString(j).hashCode())
+          .sum();
+    }
+
+    /** Halves the range until it fits CHUNK_SIZE */
+    private static final class RangeAction extends RecursiveAction {
+
+      private final int from;
+      private final int to;
+      private final transient Blackhole blackhole;
+
+      RangeAction(int from, int to, Blackhole blackhole) {
+        this.from = from;
+        this.to = to;
+        this.blackhole = blackhole;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from > CHUNK_SIZE) {
+          int middle = (from + to) >>> 1;
+          invokeAll(new RangeAction(from, middle, blackhole), new RangeAction(middle, to, blackhole));
+          return;
+        }
+        for (int j = from; j < to; ++j) {
+          String s = Integer.toBinaryString(j);
+          if (s.contains("1100")) continue;
+          blackhole.consume(s.hashCode());
+        }
+      }
+    }
   }
 }
\ No newline at end of file
@@ -2,16 +2,20 @@ package org.reminstant.concurrent;
 
 import org.reminstant.concurrent.functions.ThrowingFunction;
 import org.reminstant.concurrent.functions.ThrowingFunctions;
+import org.reminstant.concurrent.functions.ThrowingRangeFunction;
 import org.reminstant.concurrent.functions.ThrowingSupplier;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.Function;
 
 public class ChainableFutureTest {
@@ -775,6 +779,24 @@ public class ChainableFutureTest {
   }
 
 
+  @Test
+  void testLongChainOnSingleThread() throws ExecutionException, InterruptedException, TimeoutException {
+    // SETUP
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+
+    // EXECUTION
+    ChainableFuture<Integer> f = ChainableFuture.supplyStronglyAsync(() -> 0, executor);
+    for (int i = 0; i < 10_000; ++i) {
+      f = f.thenStronglyMapAsync(x -> x + 1);
+    }
+    // pending stages hold no thread, so the single one runs them all
+    int res = f.get(1, TimeUnit.MINUTES);
+    executor.shutdownNow();
+
+    // ASSERTION
+    Assert.assertEquals(res, 10_000);
+  }
+
   @Test
   void testAwaitAllSuccess() {
     // EXECUTION
@@ -930,70 +952,476 @@ public class ChainableFutureTest {
 
 
 
-//  @Test
-//  void testCollectSuccess() throws ExecutionException, InterruptedException, TimeoutException {
-//    // EXECUTION
-//    ChainableFuture<Integer> parent1 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> parent2 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> parent3 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<List<Integer>> collector = ChainableFuture
-//        .collectStronglyAsync(List.of(parent1, parent2, parent3));
-//
-//    List<Integer> res = collector.get(1, TimeUnit.MINUTES);
-//
-//    // ASSERTION
-//    Assert.assertTrue(collector.isDone());
-//    Assert.assertEquals(collector.state(), Future.State.SUCCESS);
-//    Assert.assertEquals(res, List.of(startValue, startValue, startValue));
-//  }
-//
-//  @Test
-//  void testCollectExecution() {
-//    // EXECUTION
-//    ChainableFuture<Integer> parent1 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> parent2 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> parent3 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<List<Integer>> collector = ChainableFuture
-//        .collectStronglyAsync(List.of(parent1, parent2, parent3));
-//
-//    // ASSERTION
-//    Assert.assertFalse(collector.isDone());
-//    Assert.assertEquals(collector.state(), Future.State.RUNNING);
-//  }
-//
-//  @Test
-//  void testCollectFailure() {
-//    // EXECUTION
-//    ChainableFuture<Integer> parent1 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> parent2 = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> parent3 = ChainableFuture.runStronglyAsync(throwSupplier);
-//    ChainableFuture<List<Integer>> collector = ChainableFuture
-//        .collectStronglyAsync(List.of(parent1, parent2, parent3));
-//
-//    uncheckedWaitForTaskCompletion(collector);
-//
-//    // ASSERTION
-//    Assert.assertTrue(collector.isDone());
-//    Assert.assertEquals(collector.state(), Future.State.FAILED);
-//    Assert.assertEquals(traceValue, startValue);
-//  }
-//
-//  @Test
-//  void testCollectHeadCancellation() {
-//    // EXECUTION
-//    ChainableFuture<Integer> head = ChainableFuture.runStronglyAsync(slowSupplier);
-//    ChainableFuture<Integer> tail = head.thenStronglyMapAsync(slowIncrement);
-//
-//    head.cancel(true);
-//    uncheckedWaitForTaskCompletion(head, tail);
-//
-//    // ASSERTION
-//    Assert.assertTrue(head.isDone());
-//    Assert.assertTrue(tail.isDone());
-//    Assert.assertEquals(head.state(), Future.State.CANCELLED);
-//    Assert.assertEquals(tail.state(), Future.State.FAILED);
-//    Assert.assertNull(traceValue);
-//  }
+  @Test
+  void testCollectSuccess() throws ExecutionException, InterruptedException, TimeoutException {
+    // EXECUTION
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyStronglyAsync(fastSupplier);
+    ChainableFuture<Integer> parent3 = ChainableFuture.supplyStronglyAsync(() -> startValue + 1);
+    ChainableFuture<List<Integer>> collector = ChainableFuture
+        .collectStronglyAsync(List.of(parent1, parent2, parent3));
+
+    List<Integer> res = collector.get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertTrue(collector.isDone());
+    Assert.assertEquals(collector.state(), Future.State.SUCCESS);
+    Assert.assertEquals(res, List.of(startValue, startValue, startValue + 1));
+  }
+
+  @Test
+  void testCollectExecution() {
+    // EXECUTION
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<Integer> parent3 = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<List<Integer>> collector = ChainableFuture
+        .collectStronglyAsync(List.of(parent1, parent2, parent3));
+
+    // ASSERTION
+    Assert.assertFalse(collector.isDone());
+    Assert.assertEquals(collector.state(), Future.State.RUNNING);
+  }
+
+  @Test
+  void testCollectFailFast() {
+    // EXECUTION
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyWeaklyAsync(slowSupplier);
+    ChainableFuture<Integer> parent3 = ChainableFuture.supplyStronglyAsync(throwSupplier);
+    ChainableFuture<List<Integer>> collector = ChainableFuture
+        .collectStronglyAsync(List.of(parent1, parent2, parent3));
+
+    uncheckedWaitForTaskCompletion(collector);
+
+    // ASSERTION
+    Assert.assertEquals(collector.state(), Future.State.FAILED);
+    Assert.assertEquals(parent1.state(), Future.State.RUNNING);
+    Assert.assertEquals(parent2.state(), Future.State.CANCELLED);
+    Assert.assertEquals(parent3.state(), Future.State.FAILED);
+    Assert.assertNull(traceValue);
+  }
+
+  @Test
+  void testCollectEmpty() throws ExecutionException, InterruptedException, TimeoutException {
+    // EXECUTION
+    ChainableFuture<List<Integer>> collector = ChainableFuture.collectStronglyAsync(List.of());
+
+    // ASSERTION
+    Assert.assertEquals(collector.get(1, TimeUnit.MINUTES), List.of());
+  }
+
+  @Test
+  void testAnyOfSuccess() throws ExecutionException, InterruptedException, TimeoutException {
+    // EXECUTION
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyWeaklyAsync(slowSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<Integer> parent3 = ChainableFuture.supplyWeaklyAsync(() -> startValue + 1);
+    ChainableFuture<Integer> winner = ChainableFuture.anyOfStronglyAsync(List.of(parent1, parent2, parent3));
+
+    int res = winner.get(1, TimeUnit.MINUTES);
+    uncheckedWaitForTaskCompletion(parent1);
+
+    // ASSERTION
+    Assert.assertEquals(res, startValue + 1);
+    Assert.assertEquals(parent1.state(), Future.State.CANCELLED);
+    Assert.assertEquals(parent2.state(), Future.State.RUNNING);
+    Assert.assertNull(traceValue);
+  }
+
+  @Test
+  void testAnyOfFailure() {
+    // EXECUTION
+    Throwable exception = null;
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyWeaklyAsync(slowSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyWeaklyAsync(throwSupplier);
+    ChainableFuture<Integer> winner = ChainableFuture.anyOfStronglyAsync(List.of(parent1, parent2));
+
+    try {
+      winner.get(1, TimeUnit.MINUTES);
+    } catch (Exception ex) {
+      exception = ex;
+    }
+    uncheckedWaitForTaskCompletion(parent1);
+
+    // ASSERTION
+    Assert.assertEquals(winner.state(), Future.State.FAILED);
+    Assert.assertEquals(parent1.state(), Future.State.CANCELLED);
+    Assert.assertTrue(exception instanceof ExecutionException);
+    Assert.assertTrue(exception.getCause() instanceof ChainExecutionException);
+    Assert.assertEquals(exception.getCause().getCause(), runtimeException);
+  }
+
+  @Test
+  void testFirstSuccessfulSuccess() throws ExecutionException, InterruptedException, TimeoutException {
+    // EXECUTION
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyWeaklyAsync(throwSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyWeaklyAsync(fastSupplier);
+    ChainableFuture<Integer> parent3 = ChainableFuture.supplyWeaklyAsync(slowSupplier);
+    ChainableFuture<Integer> winner = ChainableFuture
+        .firstSuccessfulStronglyAsync(List.of(parent1, parent2, parent3));
+
+    int res = winner.get(1, TimeUnit.MINUTES);
+    uncheckedWaitForTaskCompletion(parent3);
+
+    // ASSERTION
+    Assert.assertEquals(res, startValue);
+    Assert.assertEquals(parent1.state(), Future.State.FAILED);
+    Assert.assertEquals(parent3.state(), Future.State.CANCELLED);
+  }
+
+  @Test
+  void testFirstSuccessfulFailure() {
+    // EXECUTION
+    ChainableFuture<Integer> parent1 = ChainableFuture.supplyStronglyAsync(throwSupplier);
+    ChainableFuture<Integer> parent2 = ChainableFuture.supplyStronglyAsync(throwSupplier);
+    ChainableFuture<Integer> winner = ChainableFuture.firstSuccessfulStronglyAsync(List.of(parent1, parent2));
+
+    uncheckedWaitForTaskCompletion(winner);
+
+    // ASSERTION
+    Assert.assertEquals(winner.state(), Future.State.FAILED);
+  }
+
+  @Test
+  void testAnyOfEmpty() {
+    // ASSERTION
+    Assert.assertThrows(IllegalArgumentException.class, () -> ChainableFuture.anyOfStronglyAsync(List.of()));
+  }
+
+
+
+  @DataProvider
+  Object[][] parallelLoopRanges() {
+    return new Object[][] {
+        {0L, 0L, 7},
+        {0L, 1L, 7},
+        {3L, 10L, 7},
+        {-5L, 10_000L, 7},
+        {0L, 10_000L, 1},
+        {0L, 10_000L, 100_000}
+    };
+  }
+
+  @Test(dataProvider = "parallelLoopRanges")
+  void testParallelForCoverage(long start, long end, int chunkSize)
+      throws ExecutionException, InterruptedException, TimeoutException {
+    // SETUP
+    AtomicIntegerArray hits = new AtomicIntegerArray((int) (end - start));
+
+    // EXECUTION
+    ChainableFuture<Void> f = ChainableFuture.parallelFor(start, end, chunkSize, (from, to) -> {
+      for (long i = from; i < to; ++i) {
+        hits.incrementAndGet((int) (i - start));
+      }
+    });
+    f.get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.SUCCESS);
+    for (int i = 0; i < hits.length(); ++i) {
+      Assert.assertEquals(hits.get(i), 1);
+    }
+  }
+
+  @Test(dataProvider = "parallelLoopRanges")
+  void testParallelReduce(long start, long end, int chunkSize) throws Exception {
+    // SETUP
+    ThrowingRangeFunction<String> mapping = (from, to) -> {
+      StringBuilder builder = new StringBuilder();
+      for (long i = from; i < to; ++i) {
+        builder.append(i).append(',');
+      }
+      return builder.toString();
+    };
+
+    // EXECUTION
+    String res = ChainableFuture.parallelReduce(start, end, chunkSize, "", mapping, String::concat)
+        .get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(res, mapping.apply(start, end));
+  }
+
+  @Test
+  void testParallelForFailure() {
+    // EXECUTION
+    Throwable exception = null;
+    AtomicInteger chunkCount = new AtomicInteger();
+    ChainableFuture<Void> f = ChainableFuture.parallelFor(0, 1_000_000, 10, (from, _) -> {
+      chunkCount.incrementAndGet();
+      if (from == 500) {
+        throw runtimeException;
+      }
+    });
+
+    try {
+      f.get(1, TimeUnit.MINUTES);
+    } catch (Exception ex) {
+      exception = ex;
+    }
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.FAILED);
+    Assert.assertTrue(exception instanceof ExecutionException);
+    Assert.assertEquals(exception.getCause(), runtimeException);
+    Assert.assertTrue(chunkCount.get() < 100_000);
+  }
+
+  @Test
+  void testParallelForCancellation() {
+    // SETUP
+    AtomicInteger chunkCount = new AtomicInteger();
+
+    // EXECUTION
+    ChainableFuture<Void> f = ChainableFuture.parallelFor(0, 1000, 1, (_, _) -> {
+      chunkCount.incrementAndGet();
+      uncheckedSleep(Duration.ofMillis(20));
+    });
+    uncheckedSleep(Duration.ofMillis(100));
+    f.cancel(true);
+    int cancelledChunkCount = chunkCount.get();
+    uncheckedSleep(Duration.ofMillis(200));
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.CANCELLED);
+    Assert.assertTrue(chunkCount.get() <= cancelledChunkCount + Runtime.getRuntime().availableProcessors());
+  }
+
+  @Test
+  void testParallelReduceCancellation() {
+    // SETUP
+    AtomicInteger combinedNullCount = new AtomicInteger();
+    CountDownLatch stoppedLatch = new CountDownLatch(1);
+
+    // EXECUTION
+    ChainableFuture<Long> f = ChainableFuture.parallelReduce(0, 1000, 1, 0L, (from, _) -> {
+      uncheckedSleep(Duration.ofMillis(20));
+      return from;
+    }, (a, b) -> {
+      if (a == null || b == null) {
+        combinedNullCount.incrementAndGet();
+      }
+      stoppedLatch.countDown();
+      return 0L;
+    });
+    uncheckedSleep(Duration.ofMillis(100));
+    f.cancel(true);
+    uncheckedSleep(Duration.ofMillis(200));
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.CANCELLED);
+    Assert.assertEquals(combinedNullCount.get(), 0);
+    Assert.assertEquals(stoppedLatch.getCount(), 1L);
+  }
+
+  @Test
+  void testParallelForIllegalArguments() {
+    // ASSERTION
+    Assert.assertThrows(IllegalArgumentException.class, () -> ChainableFuture.parallelFor(1, 0, 1, (_, _) -> { }));
+    Assert.assertThrows(IllegalArgumentException.class, () -> ChainableFuture.parallelFor(0, 1, 0, (_, _) -> { }));
+  }
+
+
+
+  @Test
+  void testOrTimeoutSuccess() throws ExecutionException, InterruptedException, TimeoutException {
+    // EXECUTION
+    ChainableFuture<Integer> f = ChainableFuture.supplyStronglyAsync(fastSupplier).orTimeout(Duration.ofMinutes(1));
+
+    int res = f.get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.SUCCESS);
+    Assert.assertEquals(res, startValue);
+  }
+
+  @Test
+  void testOrTimeoutExpiration() {
+    // EXECUTION
+    Throwable exception = null;
+    ChainableFuture<Integer> head = ChainableFuture.supplyWeaklyAsync(slowSupplier);
+    ChainableFuture<Integer> tail = head.orTimeout(Duration.ofMillis(100));
+
+    try {
+      tail.get(1, TimeUnit.MINUTES);
+    } catch (Exception ex) {
+      exception = ex;
+    }
+    uncheckedWaitForTaskCompletion(head);
+
+    // ASSERTION
+    Assert.assertEquals(tail.state(), Future.State.FAILED);
+    Assert.assertEquals(head.state(), Future.State.CANCELLED);
+    Assert.assertTrue(exception instanceof ExecutionException);
+    Assert.assertTrue(exception.getCause() instanceof TimeoutException);
+    Assert.assertNull(traceValue);
+  }
+
+  @Test
+  void testOrTimeoutHeadFailure() {
+    // EXECUTION
+    ChainableFuture<Integer> tail = ChainableFuture.supplyStronglyAsync(throwSupplier)
+        .orTimeout(Duration.ofMinutes(1));
+
+    uncheckedWaitForTaskCompletion(tail);
+
+    // ASSERTION
+    Assert.assertEquals(tail.state(), Future.State.FAILED);
+  }
+
+  @Test
+  void testCompleteOnTimeout() throws ExecutionException, InterruptedException, TimeoutException {
+    // EXECUTION
+    ChainableFuture<Integer> head = ChainableFuture.supplyStronglyAsync(slowSupplier);
+    ChainableFuture<Integer> tail = head.completeOnTimeout(startValue + 1, Duration.ofMillis(100));
+
+    int res = tail.get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(res, startValue + 1);
+    Assert.assertEquals(head.state(), Future.State.RUNNING);
+  }
+
+  @Test
+  void testRetrySuccess() throws ExecutionException, InterruptedException, TimeoutException {
+    // SETUP
+    AtomicInteger attemptCount = new AtomicInteger();
+    RetryPolicy policy = RetryPolicy.exponentialBackoff(5, Duration.ofMillis(10), Duration.ofMillis(50));
+
+    // EXECUTION
+    ChainableFuture<Integer> f = ChainableFuture.retryStronglyAsync(() -> {
+      if (attemptCount.incrementAndGet() < 3) {
+        throw runtimeException;
+      }
+      return startValue;
+    }, policy);
+
+    int res = f.get(1, TimeUnit.MINUTES);
+
+    // ASSERTION
+    Assert.assertEquals(res, startValue);
+    Assert.assertEquals(attemptCount.get(), 3);
+  }
+
+  @Test
+  void testRetryExhaustion() {
+    // SETUP
+    AtomicInteger attemptCount = new AtomicInteger();
+    Throwable exception = null;
+
+    // EXECUTION
+    ChainableFuture<Integer> f = ChainableFuture.retryStronglyAsync(() -> {
+      attemptCount.incrementAndGet();
+      throw runtimeException;
+    }, RetryPolicy.fixedDelay(3, Duration.ofMillis(10)));
+
+    try {
+      f.get(1, TimeUnit.MINUTES);
+    } catch (Exception ex) {
+      exception = ex;
+    }
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.FAILED);
+    Assert.assertEquals(attemptCount.get(), 3);
+    Assert.assertTrue(exception instanceof ExecutionException);
+    Assert.assertEquals(exception.getCause(), runtimeException);
+  }
+
+  @Test
+  void testRetryNonRetryableException() {
+    // SETUP
+    AtomicInteger attemptCount = new AtomicInteger();
+    RetryPolicy policy = RetryPolicy.fixedDelay(3, Duration.ofMillis(10))
+        .retryingOn(IOException.class::isInstance);
+
+    // EXECUTION
+    ChainableFuture<Integer> f = ChainableFuture.retryStronglyAsync(() -> {
+      attemptCount.incrementAndGet();
+      throw runtimeException;
+    }, policy);
+
+    uncheckedWaitForTaskCompletion(f);
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.FAILED);
+    Assert.assertEquals(attemptCount.get(), 1);
+  }
+
+  @Test
+  void testRetryCancellation() {
+    // SETUP
+    AtomicInteger attemptCount = new AtomicInteger();
+
+    // EXECUTION
+    ChainableFuture<Integer> f = ChainableFuture.retryStronglyAsync(() -> {
+      attemptCount.incrementAndGet();
+      throw runtimeException;
+    }, RetryPolicy.fixedDelay(1000, Duration.ofMillis(50)));
+
+    uncheckedSleep(Duration.ofMillis(120));
+    f.cancel(true);
+    int cancelledAttemptCount = attemptCount.get();
+    uncheckedSleep(Duration.ofMillis(200));
+
+    // ASSERTION
+    Assert.assertEquals(f.state(), Future.State.CANCELLED);
+    Assert.assertTrue(attemptCount.get() <= cancelledAttemptCount + 1);
+  }
+
+  @Test
+  void testTimersNotBlockedByBusyExecutor() throws InterruptedException {
+    // SETUP
+    BoundedExecutor executor = BoundedExecutor.blocking(Executors.newVirtualThreadPerTaskExecutor(), 1);
+    CountDownLatch releaseLatch = new CountDownLatch(1);
+    AtomicInteger attemptCount = new AtomicInteger();
+
+    // EXECUTION
+    ChainableFuture<Integer> retried = ChainableFuture.retryStronglyAsync(() -> {
+      attemptCount.incrementAndGet();
+      throw runtimeException;
+    }, RetryPolicy.fixedDelay(3, Duration.ofMillis(100)), executor);
+    while (attemptCount.get() == 0) {
+      uncheckedSleep(Duration.ofMillis(1));
+    }
+    // the only slot is held, so the timeout child and the next attempt can't be started
+    ChainableFuture<Integer> holder = ChainableFuture.supplyStronglyAsync(() -> {
+      releaseLatch.await();
+      return startValue;
+    }, executor);
+    ChainableFuture<Integer> blockedTail = holder.orTimeout(Duration.ofMillis(50)).thenStronglyMapAsync(x -> x);
+    // weak, so the timeout cancels the supplier and it doesn't touch traceValue of later tests
+    ChainableFuture<Integer> independent = ChainableFuture.supplyWeaklyAsync(slowSupplier)
+        .orTimeout(Duration.ofMillis(300));
+
+    uncheckedWaitForTaskCompletion(independent);
+    Future.State independentState = independent.state();
+    boolean isBlockedTailDone = blockedTail.isDone();
+    releaseLatch.countDown();
+    uncheckedWaitForTaskCompletion(blockedTail, retried);
+    executor.shutdownNow();
+
+    // ASSERTION
+    Assert.assertEquals(independentState, Future.State.FAILED);
+    Assert.assertFalse(isBlockedTailDone);
+    Assert.assertEquals(blockedTail.state(), Future.State.FAILED);
+    Assert.assertEquals(retried.state(), Future.State.FAILED);
+    Assert.assertEquals(attemptCount.get(), 3);
+  }
+
+  @Test
+  void testRetryPolicyDelays() {
+    // SETUP
+    RetryPolicy policy = RetryPolicy.exponentialBackoff(10, Duration.ofMillis(10), Duration.ofMillis(50));
+
+    // ASSERTION
+    Assert.assertEquals(policy.getDelayNanos(1), Duration.ofMillis(10).toNanos());
+    Assert.assertEquals(policy.getDelayNanos(2), Duration.ofMillis(20).toNanos());
+    Assert.assertEquals(policy.getDelayNanos(3), Duration.ofMillis(40).toNanos());
+    Assert.assertEquals(policy.getDelayNanos(9), Duration.ofMillis(50).toNanos());
+    Assert.assertThrows(IllegalArgumentException.class, () -> RetryPolicy.fixedDelay(0, Duration.ZERO));
+  }
 
 
 
@@ -0,0 +1,58 @@
+package org.reminstant.cryptography;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+public class CompiledPermutationTest {
+
+  @Test(dataProvider = "PermutationParams")
+  void testMatchesBitsPermute(BitNumbering numbering, int inputByteSize, int outputByteSize) {
+    // SETUP
+    Random random = new Random(31L * inputByteSize + outputByteSize + numbering.ordinal());
+    int firstIdx = (numbering == BitNumbering.LSB1_FIRST || numbering == BitNumbering.MSB1_FIRST) ? 1 : 0;
+    int[] rule = new int[Byte.SIZE * outputByteSize];
+    for (int i = 0; i < rule.length; ++i) {
+      rule[i] = firstIdx + random.nextInt(Byte.SIZE * inputByteSize);
+    }
+    CompiledPermutation permutation = new CompiledPermutation(rule, numbering, inputByteSize);
+
+    for (int k = 0; k < 50; ++k) {
+      byte[] data = new byte[inputByteSize];
+      random.nextBytes(data);
+
+      // EXECUTION
+      byte[] actual = permutation.apply(data);
+
+      // ASSERTION
+      Assert.assertEquals(actual, Bits.permute(data, rule, numbering));
+      if (inputByteSize <= Long.BYTES && outputByteSize <= Long.BYTES) {
+        Assert.assertEquals(permutation.apply(Bits.packToLong(data)), Bits.packToLong(actual));
+      }
+    }
+  }
+
+  @Test
+  void testInconsistentRule() {
+    // SETUP
+    int[] rule = { 1, 2, 3, 4, 5, 6, 7, 9 };
+
+    // EXECUTION & ASSERTION
+    Assert.assertThrows(IllegalArgumentException.class,
+        () -> new CompiledPermutation(rule, BitNumbering.MSB1_FIRST, 1));
+  }
+
+  @DataProvider(name = "PermutationParams")
+  Object[][] getPermutationParams() {
+    return new Object[][] {
+        { BitNumbering.MSB1_FIRST, 8, 8 },
+        { BitNumbering.MSB1_FIRST, 7, 6 },
+        { BitNumbering.MSB0_FIRST, 8, 7 },
+        { BitNumbering.LSB0_FIRST, 3, 5 },
+        { BitNumbering.LSB1_FIRST, 16, 16 },
+        { BitNumbering.MSB0_FIRST, 12, 20 },
+    };
+  }
+}
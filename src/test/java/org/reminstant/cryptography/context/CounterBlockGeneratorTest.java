@@ -0,0 +1,63 @@
+package org.reminstant.cryptography.context;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Random;
+
+public class CounterBlockGeneratorTest {
+
+  @Test(dataProvider = "CounterParams")
+  void testSequenceMatchesBigIntegerCounter(int blockByteSize, long firstIdx, boolean isMaxDelta) {
+    // SETUP
+    Random random = new Random(blockByteSize * 31L + firstIdx);
+    byte[] initVector = new byte[blockByteSize];
+    random.nextBytes(initVector);
+    byte[] deltaBytes = new byte[blockByteSize];
+    if (isMaxDelta) {
+      Arrays.fill(deltaBytes, (byte) 0xFF);
+    } else {
+      random.nextBytes(deltaBytes);
+    }
+    BigInteger delta = new BigInteger(1, deltaBytes);
+    int count = 100;
+
+    // EXECUTION
+    CounterBlockGenerator generator = new CounterBlockGenerator(initVector, delta).copy();
+    generator.seek(firstIdx);
+    byte[] actual = new byte[count * blockByteSize];
+    for (int k = 0; k < count; ++k) {
+      generator.next(actual, k * blockByteSize);
+    }
+
+    // ASSERTION
+    BigInteger modulus = BigInteger.ONE.shiftLeft(8 * blockByteSize);
+    BigInteger counter = new BigInteger(1, initVector);
+    for (int k = 0; k < count; ++k) {
+      BigInteger idx = BigInteger.valueOf(firstIdx).add(BigInteger.valueOf(k));
+      BigInteger expected = counter.add(idx.multiply(delta)).mod(modulus);
+      byte[] expectedBytes = new byte[blockByteSize];
+      byte[] raw = expected.toByteArray();
+      int length = Math.min(raw.length, blockByteSize);
+      System.arraycopy(raw, raw.length - length, expectedBytes, blockByteSize - length, length);
+
+      byte[] actualBytes = Arrays.copyOfRange(actual, k * blockByteSize, (k + 1) * blockByteSize);
+      Assert.assertEquals(actualBytes, expectedBytes);
+    }
+  }
+
+  @DataProvider(name = "CounterParams")
+  Object[][] getCounterParams() {
+    return new Object[][] {
+        { 8, 0L, false },
+        { 8, Long.MAX_VALUE - 50, true },
+        { 16, 0L, false },
+        { 16, 123_456_789L, false },
+        { 16, Long.MAX_VALUE - 50, true },
+        { 12, 987_654_321L, true },
+    };
+  }
+}
@@ -0,0 +1,73 @@
+package org.reminstant.cryptography.context;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+public class OffHeapDataTest {
+
+  @Test(dataProvider = "SegmentParams")
+  void testWritesAreReadBackAcrossSegments(int size, int segmentByteSize) throws IOException {
+    // SETUP
+    Random random = new Random(31L * size + segmentByteSize);
+    byte[] expected = new byte[size];
+    random.nextBytes(expected);
+    OffHeapData data = new OffHeapData(size, segmentByteSize);
+
+    // EXECUTION
+    for (int position = 0; position < size; ) {
+      int length = Math.min(random.nextInt(3 * segmentByteSize + 1), size - position);
+      data.write(position, expected, position, length);
+      position += length;
+    }
+    ByteArrayOutputStream streamOut = new ByteArrayOutputStream();
+    data.writeTo(streamOut);
+    ByteArrayOutputStream channelOut = new ByteArrayOutputStream();
+    data.writeTo(Channels.newChannel(channelOut));
+
+    // ASSERTION
+    Assert.assertEquals(data.toByteArray(), expected);
+    Assert.assertEquals(streamOut.toByteArray(), expected);
+    Assert.assertEquals(channelOut.toByteArray(), expected);
+    byte[] middle = new byte[size / 2];
+    data.read(size / 4, middle, 0, middle.length);
+    Assert.assertEquals(middle, Arrays.copyOfRange(expected, size / 4, size / 4 + middle.length));
+  }
+
+  @Test
+  void testTruncate() {
+    // SETUP
+    byte[] expected = new byte[100];
+    new Random(5).nextBytes(expected);
+    OffHeapData data = new OffHeapData(expected.length, 16);
+    data.write(0, expected, 0, expected.length);
+
+    // EXECUTION
+    data.truncate(70);
+
+    // ASSERTION
+    Assert.assertEquals(data.size(), 70L);
+    Assert.assertEquals(data.toByteArray(), Arrays.copyOf(expected, 70));
+    Assert.assertEquals(data.asByteBuffers().stream().mapToInt(ByteBuffer::remaining).sum(), 70);
+    Assert.assertThrows(IndexOutOfBoundsException.class, () -> data.read(60, new byte[16], 0, 16));
+  }
+
+  @DataProvider(name = "SegmentParams")
+  Object[][] getSegmentParams() {
+    return new Object[][] {
+        { 0, 16 },
+        { 1, 16 },
+        { 100, 16 },
+        { 1000, 7 },
+        { 4096, 4096 },
+        { 10_000, 1024 },
+    };
+  }
+}
@@ -0,0 +1,215 @@
+package org.reminstant.cryptography.context;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reminstant.cryptography.SymmetricCryptoSystem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Throughput is reported through the "bytes" aux counter: with microseconds as the output unit
+// bytes/us are exactly MB/s. Run "gradlew jmh" to get JSON results with GC profiler allocation rates.
+// Default params are a narrow sweep; widen them with e.g. -p cryptoSystemName=DES,DEAL,MAGENTA,Serpent
+public class SymmetricCryptoContextBenchmark {
+
+  /** Processed message bytes of the current iteration */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class ByteCounter {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      bytes = 0;
+    }
+  }
+
+  /**
+   * Context built from benchmark params; helperThreadCount of 0 means the default execution strategy.
+   * The calling thread processes chunks as well, so helperThreadCount + 1 threads work on a message
+   */
+  @State(Scope.Benchmark)
+  public abstract static class ContextState {
+
+    @Param({"DES", "Serpent"})
+    public String cryptoSystemName;
+
+    @Param({"ECB", "CBC", "CTR"})
+    public String cipherModeName;
+
+    @Param({"0", "3"})
+    public int helperThreadCount;
+
+    protected SymmetricCryptoContext context;
+    private ExecutorService executor;
+
+    protected void setupContext(Padding padding, Map<String, Object> extraConfig) {
+      Random random = new Random(42);
+      byte[] key = new byte[SymmetricCryptoContext.getCryptoSystemKeySizes(cryptoSystemName).getFirst()];
+      random.nextBytes(key);
+      SymmetricCryptoSystem cryptoSystem = SymmetricCryptoContext.getCryptoSystem(cryptoSystemName, key);
+      BlockCipherMode cipherMode = BlockCipherMode.valueOf(cipherModeName);
+
+      Map<String, Object> config = new HashMap<>(extraConfig);
+      if (cipherMode.equals(BlockCipherMode.RD)) {
+        config.put(SymmetricCryptoContext.RD_PARAM, SymmetricCryptoContext.generateRandomDelta(cryptoSystem));
+      }
+      if (helperThreadCount > 0) {
+        executor = Executors.newFixedThreadPool(helperThreadCount);
+        config.put(SymmetricCryptoContext.EXECUTION_STRATEGY_PARAM, executor);
+      }
+
+      byte[] initVector = cipherMode.isInitVectorRequires()
+          ? SymmetricCryptoContext.generateInitVector(cryptoSystem)
+          : null;
+      context = new SymmetricCryptoContext(cryptoSystem, padding, cipherMode, initVector, config);
+    }
+
+    @TearDown
+    public void shutdownExecutor() {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  @State(Scope.Benchmark)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 3, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+  @Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+  @Threads(1)
+  public static class InMemoryBenchmark extends ContextState {
+
+    @Param({"4096", "1048576", "67108864"})
+    public int messageByteSize;
+
+    private byte[] message;
+    private byte[] cipher;
+
+    @Setup
+    public void setup() {
+      setupContext(Padding.PKCS7, Map.of());
+      message = new byte[messageByteSize];
+      new Random(42).nextBytes(message);
+      cipher = context.encrypt(message);
+    }
+
+    @Benchmark
+    public void testEncryption(ByteCounter counter, Blackhole blackhole) {
+      blackhole.consume(context.encrypt(message));
+      counter.bytes += message.length;
+    }
+
+    @Benchmark
+    public void testDecryption(ByteCounter counter, Blackhole blackhole) {
+      blackhole.consume(context.decrypt(cipher));
+      counter.bytes += message.length;
+    }
+  }
+
+  @State(Scope.Benchmark)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 3, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+  @Fork(value = 1)
+  @Threads(1)
+  public static class FileBenchmark extends ContextState {
+
+    @Param({"1048576", "67108864"})
+    public int messageByteSize;
+
+    @Param({"false", "true"})
+    public boolean isMappedFileIO;
+
+    private Path messagePath;
+    private Path cipherPath;
+    private Path outputPath;
+
+    @Setup
+    public void setup() throws IOException {
+      setupContext(Padding.PKCS7, Map.of(SymmetricCryptoContext.MAPPED_FILE_IO_PARAM, isMappedFileIO));
+      messagePath = Files.createTempFile("benchmark-message", ".bin");
+      cipherPath = Files.createTempFile("benchmark-cipher", ".bin");
+      outputPath = Files.createTempFile("benchmark-output", ".bin");
+
+      byte[] message = new byte[messageByteSize];
+      new Random(42).nextBytes(message);
+      Files.write(messagePath, message);
+      context.encrypt(messagePath.toString(), cipherPath.toString());
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+      Files.deleteIfExists(messagePath);
+      Files.deleteIfExists(cipherPath);
+      Files.deleteIfExists(outputPath);
+    }
+
+    @Benchmark
+    public void testEncryption(ByteCounter counter) throws IOException {
+      context.encrypt(messagePath.toString(), outputPath.toString());
+      counter.bytes += messageByteSize;
+    }
+
+    @Benchmark
+    public void testDecryption(ByteCounter counter) throws IOException {
+      context.decrypt(cipherPath.toString(), outputPath.toString());
+      counter.bytes += messageByteSize;
+    }
+  }
+
+  @State(Scope.Thread)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 3, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 3, timeUnit = TimeUnit.SECONDS)
+  @Fork(value = 1)
+  @Threads(1)
+  public static class PaddingBenchmark {
+
+    @Param({"NONE", "ZEROS", "ANSI_X923", "PKCS7", "ISO_10126"})
+    public String paddingName;
+
+    @Param({"64", "4096"})
+    public int messageByteSize;
+
+    private SymmetricCryptoContext context;
+    private byte[] message;
+    private byte[] cipher;
+
+    @Setup
+    public void setup() {
+      Random random = new Random(42);
+      byte[] key = new byte[SymmetricCryptoContext.getCryptoSystemKeySizes("Serpent").getFirst()];
+      random.nextBytes(key);
+      context = new SymmetricCryptoContext(SymmetricCryptoContext.getCryptoSystem("Serpent", key),
+          Padding.valueOf(paddingName), BlockCipherMode.ECB);
+      message = new byte[messageByteSize];
+      random.nextBytes(message);
+      cipher = context.encrypt(message);
+    }
+
+    @Benchmark
+    public void testEncryption(ByteCounter counter, Blackhole blackhole) {
+      blackhole.consume(context.encrypt(message));
+      counter.bytes += message.length;
+    }
+
+    @Benchmark
+    public void testDecryption(ByteCounter counter, Blackhole blackhole) {
+      blackhole.consume(context.decrypt(cipher));
+      counter.bytes += message.length;
+    }
+  }
+}
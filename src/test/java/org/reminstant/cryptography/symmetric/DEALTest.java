@@ -147,6 +147,22 @@ public class DEALTest {
     Assert.assertEquals(decryptedMessage, message);
   }
 
+  @Test(dataProvider = "ValidDataForDEAL")
+  void testDEALSetKey(byte[] key, byte[] message, byte[] expectedCipher) {
+    // SETUP
+    byte[] otherKey = new byte[32];
+    Arrays.fill(otherKey, (byte) 0x5A);
+
+    // EXECUTION
+    SymmetricCryptoSystem deal = new DEAL(otherKey);
+    deal.encrypt(message);
+    deal.setKey(key);
+    byte[] actualCipherText = deal.encrypt(message);
+
+    // ASSERTION
+    Assert.assertEquals(actualCipherText, expectedCipher);
+  }
+
   @DataProvider(name = "ValidDataForDEAL")
   Object[][] getValidData() {
     return new byte[][][] {
@@ -103,6 +103,25 @@ public class DESTest {
     Assert.assertEquals(decryptedMessage, message);
   }
 
+  @Test(dataProvider = "ValidDataForDES")
+  void testDESBlockInPlace(byte[] key, byte[] message, byte[] cipher) {
+    // SETUP
+    int offset = 3;
+    byte[] buffer = new byte[offset + message.length + 1];
+    System.arraycopy(message, 0, buffer, offset, message.length);
+
+    // EXECUTION
+    SymmetricCryptoSystem des = new DES(key);
+    des.encryptBlock(buffer, offset, buffer, offset);
+    byte[] actualCipherText = Arrays.copyOfRange(buffer, offset, offset + cipher.length);
+    des.decryptBlock(buffer, offset, buffer, offset);
+    byte[] decryptedMessage = Arrays.copyOfRange(buffer, offset, offset + message.length);
+
+    // ASSERTION
+    Assert.assertEquals(actualCipherText, cipher);
+    Assert.assertEquals(decryptedMessage, message);
+  }
+
   @DataProvider(name = "ValidDataForDES")
   Object[][] getValidData() {
     return new byte[][][] {
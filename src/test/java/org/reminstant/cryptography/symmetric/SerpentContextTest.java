@@ -1,6 +1,10 @@
 package org.reminstant.cryptography.symmetric;
 
 import org.reminstant.cryptography.context.BlockCipherMode;
+import org.reminstant.cryptography.context.CryptoMetricsCollector;
+import org.reminstant.cryptography.context.CryptoProgress;
+import org.reminstant.cryptography.context.OffHeapData;
+import org.reminstant.cryptography.context.ExecutionStrategy;
 import org.reminstant.cryptography.context.Padding;
 import org.reminstant.cryptography.context.SymmetricCryptoContext;
 import org.testng.Assert;
@@ -8,15 +12,20 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
-import java.io.IOException;
+import java.io.*;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
 
 public class SerpentContextTest {
 
@@ -124,6 +133,341 @@ public class SerpentContextTest {
     Assert.assertEquals(message, decryptedMessage);
   }
 
+  @Test(dataProvider = "chunkBlockCounts")
+  void testChunkBlockCountDoesNotChangeCipher(BlockCipherMode cipherMode, int chunkBlockCount) {
+    // SETUP
+    byte[] key = keysProvider()[0];
+    byte[] initVector = initVectorsProvider()[0];
+    byte[] message = new byte[16 * 1000 + 5];
+    new Random(chunkBlockCount).nextBytes(message);
+    Map<String, Object> defaultConfig = Map.of(SymmetricCryptoContext.RD_PARAM, deltasProvider()[0]);
+    Map<String, Object> chunkedConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, deltasProvider()[0],
+        SymmetricCryptoContext.CHUNK_BLOCK_COUNT_PARAM, chunkBlockCount);
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var defaultContext = new SymmetricCryptoContext(
+        cryptoSystem, Padding.PKCS7, cipherMode, initVector, defaultConfig);
+    var chunkedContext = new SymmetricCryptoContext(
+        cryptoSystem, Padding.PKCS7, cipherMode, initVector, chunkedConfig);
+
+    byte[] cipher = chunkedContext.encrypt(message);
+    byte[] decryptedMessage = chunkedContext.decrypt(cipher);
+
+    // ASSERTION
+    Assert.assertEquals(cipher, defaultContext.encrypt(message));
+    Assert.assertEquals(decryptedMessage, message);
+  }
+
+  @Test(dataProvider = "executionParams")
+  void testExecutionStrategyDoesNotChangeCipher(BlockCipherMode cipherMode, Object execution, int inlineBlockCount) {
+    // SETUP
+    byte[] key = keysProvider()[1];
+    byte[] initVector = initVectorsProvider()[1];
+    byte[] message = new byte[16 * 1000 + 5];
+    new Random(inlineBlockCount).nextBytes(message);
+    Map<String, Object> defaultConfig = Map.of(SymmetricCryptoContext.RD_PARAM, deltasProvider()[0]);
+    Map<String, Object> executionConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, deltasProvider()[0],
+        SymmetricCryptoContext.CHUNK_BLOCK_COUNT_PARAM, 16,
+        SymmetricCryptoContext.EXECUTION_STRATEGY_PARAM, execution,
+        SymmetricCryptoContext.INLINE_BLOCK_COUNT_PARAM, inlineBlockCount);
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var defaultContext = new SymmetricCryptoContext(
+        cryptoSystem, Padding.PKCS7, cipherMode, initVector, defaultConfig);
+    var executionContext = new SymmetricCryptoContext(
+        cryptoSystem, Padding.PKCS7, cipherMode, initVector, executionConfig);
+
+    byte[] cipher = executionContext.encrypt(message);
+    byte[] decryptedMessage = executionContext.decrypt(cipher);
+
+    // ASSERTION
+    Assert.assertEquals(cipher, defaultContext.encrypt(message));
+    Assert.assertEquals(decryptedMessage, message);
+  }
+
+  @Test(dataProvider = "cipherModes")
+  void testMetricsCollection(BlockCipherMode cipherMode) {
+    // SETUP
+    byte[] key = keysProvider()[2];
+    byte[] initVector = initVectorsProvider()[2];
+    byte[] message = new byte[16 * 1000 + 5];
+    new Random(7).nextBytes(message);
+    CryptoMetricsCollector metrics = new CryptoMetricsCollector();
+    Map<String, Object> metricsConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, deltasProvider()[0],
+        SymmetricCryptoContext.CHUNK_BLOCK_COUNT_PARAM, 64,
+        SymmetricCryptoContext.METRICS_PARAM, metrics);
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var defaultContext = new SymmetricCryptoContext(cryptoSystem, Padding.PKCS7, cipherMode, initVector,
+        Map.of(SymmetricCryptoContext.RD_PARAM, deltasProvider()[0]));
+    var metricsContext = new SymmetricCryptoContext(cryptoSystem, Padding.PKCS7, cipherMode, initVector, metricsConfig);
+
+    byte[] cipher = metricsContext.encrypt(message);
+    byte[] decryptedMessage = metricsContext.decrypt(cipher);
+
+    // ASSERTION
+    Assert.assertEquals(cipher, defaultContext.encrypt(message));
+    Assert.assertEquals(decryptedMessage, message);
+    Assert.assertEquals(metrics.getProcessedBlockCount(), 2L * cipher.length / 16);
+    Assert.assertTrue(metrics.getReadByteCount() >= 2L * cipher.length);
+    Assert.assertEquals(metrics.getWrittenByteCount(), 2L * cipher.length);
+    Assert.assertTrue(metrics.getCipherNanos() > 0);
+    Assert.assertTrue(metrics.getIoNanos() > 0);
+    if (cipherMode.equals(BlockCipherMode.ECB) || cipherMode.equals(BlockCipherMode.CTR)) {
+      Assert.assertTrue(metrics.getWorkerCount() >= 2);
+      Assert.assertTrue(metrics.getWorkerThroughput() > 0);
+    }
+
+    metrics.reset();
+    Assert.assertEquals(metrics.getProcessedBlockCount(), 0L);
+  }
+
+  @Test(dataProvider = "cipherModes")
+  void testProgressListener(BlockCipherMode cipherMode) throws Exception {
+    // SETUP
+    byte[] key = keysProvider()[0];
+    byte[] initVector = initVectorsProvider()[0];
+    byte[] message = new byte[16 * 100_000 + 3];
+    new Random(11).nextBytes(message);
+    var cryptoContext = new SymmetricCryptoContext(new Serpent(key), Padding.PKCS7, cipherMode, initVector,
+        Map.of(SymmetricCryptoContext.RD_PARAM, deltasProvider()[0]));
+    List<Double> reportedProgress = new CopyOnWriteArrayList<>();
+    CountDownLatch finalReport = new CountDownLatch(1);
+
+    // EXECUTION
+    CryptoProgress<byte[]> progress = cryptoContext.encryptAsync(message);
+    progress.addProgressListener(value -> {
+      reportedProgress.add(value);
+      if (value == 1.0) {
+        finalReport.countDown();
+      }
+    }, 1, TimeUnit.MILLISECONDS);
+    byte[] cipher = progress.getResult();
+
+    // ASSERTION
+    Assert.assertTrue(finalReport.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals(cryptoContext.decrypt(cipher), message);
+    for (int i = 1; i < reportedProgress.size(); ++i) {
+      Assert.assertTrue(reportedProgress.get(i - 1) <= reportedProgress.get(i));
+    }
+    Assert.assertEquals(progress.getProgress(), 1.0);
+  }
+
+  @Test
+  void testThrowingProgressListener() throws Exception {
+    // SETUP
+    byte[] key = keysProvider()[0];
+    byte[] message = new byte[16 * 100_000];
+    new Random(12).nextBytes(message);
+    var cryptoContext = new SymmetricCryptoContext(new Serpent(key), Padding.PKCS7, BlockCipherMode.ECB);
+    CountDownLatch finalReport = new CountDownLatch(1);
+
+    // EXECUTION
+    CryptoProgress<byte[]> progress = cryptoContext.encryptAsync(message);
+    progress.addProgressListener(value -> {
+      if (value == 1.0) {
+        finalReport.countDown();
+      }
+      throw new IllegalStateException("Listener failure");
+    }, 1, TimeUnit.MILLISECONDS);
+    progress.getResult();
+
+    // ASSERTION
+    Assert.assertTrue(finalReport.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test(dataProvider = "segmentParams")
+  void testSegmentedCycle(BlockCipherMode cipherMode, Padding padding, int segmentBlockCount, int messageLength)
+      throws IOException {
+    // SETUP
+    byte[] key = keysProvider()[1];
+    byte[] initVector = initVectorsProvider()[1];
+    byte[] message = new byte[messageLength];
+    new Random(messageLength).nextBytes(message);
+    Map<String, Object> extraConfig = Map.of(
+        SymmetricCryptoContext.SEGMENT_BLOCK_COUNT_PARAM, segmentBlockCount,
+        SymmetricCryptoContext.CHUNK_BLOCK_COUNT_PARAM, 4);
+    String encOut = testDirectory + "/segmentedEncrypted" + cipherMode + padding + segmentBlockCount
+        + "_" + messageLength;
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var cryptoContext = new SymmetricCryptoContext(
+        cryptoSystem, padding, cipherMode, initVector, extraConfig);
+
+    byte[] cipher = cryptoContext.encrypt(message);
+    byte[] decryptedMessage = cryptoContext.decrypt(cipher);
+    cryptoContext.encrypt(message, encOut);
+    byte[] decryptedFileMessage = cryptoContext.decrypt(encOut);
+
+    // ASSERTION
+    Assert.assertEquals(decryptedMessage, message);
+    Assert.assertEquals(decryptedFileMessage, message);
+    Assert.assertEquals(readFromFile(encOut), cipher);
+
+    int bodyLength = padding.equals(Padding.NONE) ? messageLength : (messageLength / 16 + 1) * 16;
+    if (bodyLength > 0 && bodyLength <= 16 * segmentBlockCount) {
+      // the only segment is chained as a whole message from its IV, which closes the header
+      int headerLength = cipher.length - bodyLength;
+      byte[] segmentInitVector = Arrays.copyOfRange(cipher, headerLength - 16, headerLength);
+      var plainContext = new SymmetricCryptoContext(cryptoSystem, padding, cipherMode, segmentInitVector);
+      Assert.assertEquals(Arrays.copyOfRange(cipher, headerLength, cipher.length), plainContext.encrypt(message));
+    }
+  }
+
+  @Test
+  void testSegmentedCorruptHeader() {
+    // SETUP
+    byte[] key = keysProvider()[1];
+    byte[] initVector = initVectorsProvider()[1];
+    var cryptoContext = new SymmetricCryptoContext(new Serpent(key), Padding.PKCS7, BlockCipherMode.CBC,
+        initVector, Map.of(SymmetricCryptoContext.SEGMENT_BLOCK_COUNT_PARAM, 2));
+    byte[] cipher = cryptoContext.encrypt(new byte[100]);
+
+    // EXECUTION
+    byte[] negativeCountCipher = cipher.clone();
+    negativeCountCipher[0] = (byte) 0x80;
+    byte[] wrongCountCipher = cipher.clone();
+    wrongCountCipher[7] += 1;
+
+    // ASSERTION
+    Assert.assertThrows(IllegalArgumentException.class, () -> cryptoContext.decrypt(negativeCountCipher));
+    Assert.assertThrows(IllegalArgumentException.class, () -> cryptoContext.decrypt(wrongCountCipher));
+  }
+
+  @Test(dataProvider = "batchSizes")
+  void testBatchCycle(int batchSize) {
+    // SETUP
+    byte[] key = keysProvider()[2];
+    Random random = new Random(batchSize);
+    List<byte[]> messages = new ArrayList<>();
+    List<byte[]> initVectors = new ArrayList<>();
+    for (int i = 0; i < batchSize; ++i) {
+      byte[] message = new byte[random.nextInt(200)];
+      byte[] initVector = new byte[16];
+      random.nextBytes(message);
+      random.nextBytes(initVector);
+      messages.add(message);
+      initVectors.add(initVector);
+    }
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var cryptoContext = new SymmetricCryptoContext(cryptoSystem, Padding.ISO_10126, BlockCipherMode.CBC,
+        initVectorsProvider()[0], Map.of(SymmetricCryptoContext.CHUNK_BLOCK_COUNT_PARAM, 4));
+
+    List<byte[]> ciphers = cryptoContext.encryptBatch(messages, initVectors);
+    List<byte[]> decryptedMessages = cryptoContext.decryptBatch(ciphers, initVectors);
+
+    // ASSERTION
+    for (int i = 0; i < batchSize; ++i) {
+      var singleContext = new SymmetricCryptoContext(
+          cryptoSystem, Padding.ISO_10126, BlockCipherMode.CBC, initVectors.get(i));
+      Assert.assertEquals(singleContext.decrypt(ciphers.get(i)), messages.get(i));
+      Assert.assertEquals(decryptedMessages.get(i), messages.get(i));
+    }
+  }
+
+  @Test(dataProvider = "streamParams")
+  void testStreamCycle(BlockCipherMode cipherMode, Padding padding, int messageLength) throws IOException {
+    // SETUP
+    byte[] key = keysProvider()[3];
+    byte[] initVector = initVectorsProvider()[2];
+    byte[] message = new byte[messageLength];
+    new Random(messageLength).nextBytes(message);
+    Map<String, Object> extraConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, deltasProvider()[1],
+        SymmetricCryptoContext.CHUNK_BLOCK_COUNT_PARAM, 4);
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var cryptoContext = new SymmetricCryptoContext(cryptoSystem, padding, cipherMode, initVector, extraConfig);
+
+    ByteArrayOutputStream cipherSink = new ByteArrayOutputStream();
+    try (OutputStream encryptor = cryptoContext.wrapForEncryption(cipherSink)) {
+      for (int i = 0; i < message.length; i += 7) {
+        encryptor.write(message, i, Math.min(7, message.length - i));
+      }
+    }
+    byte[] cipher = cipherSink.toByteArray();
+
+    byte[] decryptedMessage;
+    try (InputStream decryptor = cryptoContext.wrapForDecryption(new ByteArrayInputStream(cipher))) {
+      decryptedMessage = decryptor.readAllBytes();
+    }
+
+    // ASSERTION
+    Assert.assertEquals(cipher, cryptoContext.encrypt(message));
+    Assert.assertEquals(decryptedMessage, message);
+  }
+
+  @Test(dataProvider = "byteBufferParams")
+  void testByteBufferCycle(BlockCipherMode cipherMode, boolean isDirect, int messageLength) {
+    // SETUP
+    byte[] key = keysProvider()[5];
+    byte[] initVector = initVectorsProvider()[4];
+    byte[] message = new byte[messageLength];
+    new Random(messageLength).nextBytes(message);
+    Map<String, Object> extraConfig = Map.of(SymmetricCryptoContext.RD_PARAM, deltasProvider()[2]);
+
+    int offset = 3;
+    ByteBuffer src = allocateBuffer(offset + messageLength, isDirect).position(offset);
+    src.put(message).position(offset);
+    ByteBuffer cipherBuffer = allocateBuffer(offset + messageLength + 16, isDirect).position(offset);
+    ByteBuffer msgBuffer = allocateBuffer(offset + messageLength + 16, isDirect).position(offset);
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var cryptoContext = new SymmetricCryptoContext(cryptoSystem, Padding.PKCS7, cipherMode, initVector, extraConfig);
+
+    int cipherLength = cryptoContext.encrypt(src, cipherBuffer);
+    cipherBuffer.flip().position(offset);
+    int messageLengthAfterCycle = cryptoContext.decrypt(cipherBuffer, msgBuffer);
+
+    byte[] cipher = new byte[cipherLength];
+    cipherBuffer.get(offset, cipher);
+    byte[] decryptedMessage = new byte[messageLengthAfterCycle];
+    msgBuffer.get(offset, decryptedMessage);
+
+    // ASSERTION
+    Assert.assertEquals(src.remaining(), 0);
+    Assert.assertEquals(msgBuffer.position(), offset + messageLength);
+    Assert.assertEquals(cipher, cryptoContext.encrypt(message));
+    Assert.assertEquals(decryptedMessage, message);
+  }
+
+  @Test(dataProvider = "offHeapParams")
+  void testOffHeapCycle(BlockCipherMode cipherMode, boolean isMappedFileIO, int messageLength) throws IOException {
+    // SETUP
+    byte[] key = keysProvider()[1];
+    byte[] initVector = initVectorsProvider()[0];
+    byte[] message = new byte[messageLength];
+    new Random(messageLength).nextBytes(message);
+    Map<String, Object> extraConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, deltasProvider()[0],
+        SymmetricCryptoContext.MAPPED_FILE_IO_PARAM, isMappedFileIO);
+    String cipherFilename = testDirectory + "/offHeapCipher" + cipherMode + isMappedFileIO + messageLength;
+
+    // EXECUTION
+    var cryptoContext = new SymmetricCryptoContext(new Serpent(key), Padding.ANSI_X923, cipherMode,
+        initVector, extraConfig);
+    OffHeapData cipher = cryptoContext.encryptOffHeap(OffHeapData.copyOf(message));
+    OffHeapData decryptedMessage = cryptoContext.decryptOffHeap(cipher);
+    cryptoContext.encrypt(message, cipherFilename);
+    OffHeapData fileDecryptedMessage = cryptoContext.decryptOffHeap(cipherFilename);
+
+    // ASSERTION
+    Assert.assertEquals(cipher.toByteArray(), cryptoContext.encrypt(message));
+    Assert.assertEquals(decryptedMessage.toByteArray(), message);
+    Assert.assertEquals(fileDecryptedMessage.toByteArray(), message);
+  }
+
   // endregion
 
   // region --- Test file encryption and decryption ---
@@ -185,6 +529,44 @@ public class SerpentContextTest {
     Assert.assertTrue(areFilesEqual(in, decOut));
   }
 
+  @Test(dataProvider = "cipherModes")
+  void testMappedFileCycle(BlockCipherMode cipherMode) throws IOException {
+    // SETUP
+    byte[] key = {
+        (byte) 0x96, (byte) 0x3F, (byte) 0x67, (byte) 0x59, (byte) 0x62, (byte) 0xAB, (byte) 0xEB, (byte) 0x18,
+        (byte) 0x4E, (byte) 0x79, (byte) 0x21, (byte) 0xF1, (byte) 0x37, (byte) 0x77, (byte) 0xFF, (byte) 0xC0,
+    };
+    byte[] initVector = {
+        (byte) 0xC2, (byte) 0x5E, (byte) 0xFC, (byte) 0x27, (byte) 0x8D, (byte) 0xED, (byte) 0xB8, (byte) 0x35,
+        (byte) 0xA3, (byte) 0x34, (byte) 0x80, (byte) 0x56, (byte) 0x23, (byte) 0x3A, (byte) 0x75, (byte) 0xE5,
+    };
+    Map<String, Object> mappedConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, new BigInteger("0CB803D5AB15D23E", 16),
+        SymmetricCryptoContext.MAPPED_FILE_IO_PARAM, true);
+    Map<String, Object> channelConfig = Map.of(
+        SymmetricCryptoContext.RD_PARAM, new BigInteger("0CB803D5AB15D23E", 16));
+
+    String in = testDirectory + "/picture.jpg";
+    String encOut = testDirectory + "/mappedEncryptedPicture" + cipherMode;
+    String channelEncOut = testDirectory + "/channelEncryptedPicture" + cipherMode;
+    String decOut = testDirectory + "/mappedDecryptedPicture" + cipherMode + ".jpg";
+
+    // EXECUTION
+    var cryptoSystem = new Serpent(key);
+    var mappedContext = new SymmetricCryptoContext(
+        cryptoSystem, Padding.PKCS7, cipherMode, initVector, mappedConfig);
+    var channelContext = new SymmetricCryptoContext(
+        cryptoSystem, Padding.PKCS7, cipherMode, initVector, channelConfig);
+
+    mappedContext.encrypt(in, encOut);
+    channelContext.encrypt(in, channelEncOut);
+    mappedContext.decrypt(encOut, decOut);
+
+    // ASSERTION
+    Assert.assertTrue(areFilesEqual(encOut, channelEncOut));
+    Assert.assertTrue(areFilesEqual(in, decOut));
+  }
+
   // endregion
 
   // region --- Data providers ---
@@ -415,6 +797,92 @@ public class SerpentContextTest {
     return res;
   }
 
+  @DataProvider(name = "chunkBlockCounts")
+  Object[][] chunkBlockCountsProvider() {
+    int[] chunkBlockCounts = { 1, 3, 64, 5000 };
+    return Arrays.stream(BlockCipherMode.values())
+        .flatMap(mode -> Arrays.stream(chunkBlockCounts).mapToObj(count -> new Object[] { mode, count }))
+        .toArray(Object[][]::new);
+  }
+
+  @DataProvider(name = "executionParams")
+  Object[][] executionParamsProvider() {
+    ExecutorService customExecutor = Executors.newFixedThreadPool(2, runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setDaemon(true);
+      return thread;
+    });
+    List<Object> executions = new ArrayList<>(Arrays.asList(ExecutionStrategy.values()));
+    executions.add(customExecutor);
+    int[] inlineBlockCounts = { 0, 100_000 };
+    return Arrays.stream(BlockCipherMode.values())
+        .flatMap(mode -> executions.stream()
+            .flatMap(execution -> Arrays.stream(inlineBlockCounts)
+                .mapToObj(count -> new Object[] { mode, execution, count })))
+        .toArray(Object[][]::new);
+  }
+
+  @DataProvider(name = "segmentParams")
+  Object[][] segmentParamsProvider() {
+    BlockCipherMode[] modes = { BlockCipherMode.CBC, BlockCipherMode.PCBC, BlockCipherMode.CFB, BlockCipherMode.OFB };
+    int[] segmentBlockCounts = { 1, 3, 5000 };
+    int[] messageLengths = { 0, 5, 16, 1000 };
+    // without padding an empty message has no body blocks and so no segments
+    int[] unpaddedMessageLengths = { 0, 16, 1008 };
+    return Arrays.stream(modes)
+        .flatMap(mode -> Arrays.stream(segmentBlockCounts)
+            .boxed()
+            .flatMap(count -> Stream.concat(
+                Arrays.stream(messageLengths)
+                    .mapToObj(length -> new Object[] { mode, Padding.PKCS7, count, length }),
+                Arrays.stream(unpaddedMessageLengths)
+                    .mapToObj(length -> new Object[] { mode, Padding.NONE, count, length }))))
+        .toArray(Object[][]::new);
+  }
+
+  @DataProvider(name = "batchSizes")
+  Object[][] batchSizesProvider() {
+    return new Object[][] { { 0 }, { 1 }, { 7 }, { 100 }, { 1000 } };
+  }
+
+  @DataProvider(name = "streamParams")
+  Object[][] streamParamsProvider() {
+    int[] messageLengths = { 0, 5, 16, 63, 64, 65, 1000 };
+    Padding[] paddings = { Padding.PKCS7, Padding.ANSI_X923 };
+    return Arrays.stream(BlockCipherMode.values())
+        .flatMap(mode -> Arrays.stream(paddings)
+            .flatMap(padding -> Arrays.stream(messageLengths)
+                .mapToObj(length -> new Object[] { mode, padding, length })))
+        .toArray(Object[][]::new);
+  }
+
+  @DataProvider(name = "byteBufferParams")
+  Object[][] byteBufferParamsProvider() {
+    int[] messageLengths = { 0, 5, 16, 1000 };
+    return Arrays.stream(BlockCipherMode.values())
+        .flatMap(mode -> Arrays.stream(new Boolean[] { false, true })
+            .flatMap(isDirect -> Arrays.stream(messageLengths)
+                .mapToObj(length -> new Object[] { mode, isDirect, length })))
+        .toArray(Object[][]::new);
+  }
+
+  @DataProvider(name = "offHeapParams")
+  Object[][] offHeapParamsProvider() {
+    int[] messageLengths = { 0, 5, 16, 1000 };
+    return Arrays.stream(BlockCipherMode.values())
+        .flatMap(mode -> Arrays.stream(new Boolean[] { false, true })
+            .flatMap(isMappedFileIO -> Arrays.stream(messageLengths)
+                .mapToObj(length -> new Object[] { mode, isMappedFileIO, length })))
+        .toArray(Object[][]::new);
+  }
+
+  @DataProvider(name = "cipherModes")
+  Object[][] cipherModesProvider() {
+    return Arrays.stream(BlockCipherMode.values())
+        .map(mode -> new Object[] { mode })
+        .toArray(Object[][]::new);
+  }
+
   // endregion
 
   // region -- Utility --
@@ -435,6 +903,10 @@ public class SerpentContextTest {
     }
   }
 
+  ByteBuffer allocateBuffer(int capacity, boolean isDirect) {
+    return isDirect ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+  }
+
   boolean areFilesEqual(String path1, String path2) throws IOException {
     try (FileChannel fileChannel1 = FileChannel.open(Path.of(path1), StandardOpenOption.READ);
          FileChannel fileChannel2 = FileChannel.open(Path.of(path2), StandardOpenOption.READ)) {
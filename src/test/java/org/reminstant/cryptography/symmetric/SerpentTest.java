@@ -504,6 +504,68 @@ public class SerpentTest {
 
 
 
+  @Test(dataProvider = "SerpentSBoxes")
+  void testSBox(int sBoxIdx, int[] sBox) {
+    // SETUP
+    int[] x = new int[4];
+    for (int i = 0; i < sBox.length; ++i) {
+      for (int j = 0; j < x.length; ++j) {
+        x[j] |= ((i >>> j) & 1) << i;
+      }
+    }
+
+    // EXECUTION
+    Serpent.executeSBox(x, sBoxIdx);
+
+    // ASSERTION
+    for (int i = 0; i < sBox.length; ++i) {
+      int actualValue = 0;
+      for (int j = 0; j < x.length; ++j) {
+        actualValue |= ((x[j] >>> i) & 1) << j;
+      }
+      Assert.assertEquals(actualValue, sBox[i]);
+    }
+  }
+
+  @Test(dataProvider = "SerpentSBoxes")
+  void testInvSBox(int sBoxIdx, int[] sBox) {
+    // SETUP
+    int[] x = new int[4];
+    for (int i = 0; i < sBox.length; ++i) {
+      for (int j = 0; j < x.length; ++j) {
+        x[j] |= ((sBox[i] >>> j) & 1) << i;
+      }
+    }
+
+    // EXECUTION
+    Serpent.executeInvSBox(x, sBoxIdx);
+
+    // ASSERTION
+    for (int i = 0; i < sBox.length; ++i) {
+      int actualValue = 0;
+      for (int j = 0; j < x.length; ++j) {
+        actualValue |= ((x[j] >>> i) & 1) << j;
+      }
+      Assert.assertEquals(actualValue, i);
+    }
+  }
+
+
+
+  @DataProvider(name = "SerpentSBoxes")
+  Object[][] getSBoxes() {
+    return new Object[][] {
+        { 0, new int[] {  3,  8, 15,  1, 10,  6,  5, 11, 14, 13,  4,  2,  7,  0,  9, 12 } },
+        { 1, new int[] { 15, 12,  2,  7,  9,  0,  5, 10,  1, 11, 14,  8,  6, 13,  3,  4 } },
+        { 2, new int[] {  8,  6,  7,  9,  3, 12, 10, 15, 13,  1, 14,  4,  0, 11,  5,  2 } },
+        { 3, new int[] {  0, 15, 11,  8, 12,  9,  6,  3, 13,  1,  2,  4, 10,  7,  5, 14 } },
+        { 4, new int[] {  1, 15,  8,  3, 12,  0, 11,  6,  2,  5,  4, 10,  9, 14,  7, 13 } },
+        { 5, new int[] { 15,  5,  2, 11,  4, 10,  9, 12,  0,  3, 14,  8, 13,  6,  7,  1 } },
+        { 6, new int[] {  7,  2, 12,  5,  8,  4,  6, 11, 14,  9,  1, 15, 13,  3, 10,  0 } },
+        { 7, new int[] {  1, 13, 15,  0, 14,  8,  2, 11,  7,  4, 12, 10,  9,  3,  5,  6 } },
+    };
+  }
+
   // source: https://github.com/weidai11/cryptopp/blob/master/TestData/serpentv.dat
   @DataProvider(name = "ValidDataForSerpent")
   Object[][] getValidData() {
@@ -0,0 +1,127 @@
+package org.reminstant.cryptography.symmetric;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.reminstant.cryptography.SymmetricCryptoSystem;
+import org.reminstant.cryptography.context.SymmetricCryptoContext;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+public class SymmetricCryptoSystemBenchmark {
+
+  @State(Scope.Thread)
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Fork(value = 3, warmups = 2)
+  @Threads(1)
+  public static class BlockBatchBenchmark {
+
+    @Param({"DES", "DEAL", "MAGENTA", "Serpent"})
+    private String cryptoSystemName;
+
+    @Param({"64"})
+    private int blockCount;
+
+    private SymmetricCryptoSystem cryptoSystem;
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setup() {
+      Random random = new Random(42);
+      byte[] key = new byte[SymmetricCryptoContext.getCryptoSystemKeySizes(cryptoSystemName).getFirst()];
+      random.nextBytes(key);
+
+      cryptoSystem = SymmetricCryptoContext.getCryptoSystem(cryptoSystemName, key);
+      input = new byte[blockCount * cryptoSystem.getBlockByteSize()];
+      output = new byte[input.length];
+      random.nextBytes(input);
+    }
+
+    @Benchmark
+    public void testSingleBlockEncryption(Blackhole blackhole) {
+      int blockByteSize = cryptoSystem.getBlockByteSize();
+      for (int i = 0; i < blockCount; ++i) {
+        cryptoSystem.encryptBlock(input, i * blockByteSize, output, i * blockByteSize);
+      }
+      blackhole.consume(output);
+    }
+
+    @Benchmark
+    public void testBatchEncryption(Blackhole blackhole) {
+      cryptoSystem.encryptBlocks(input, 0, output, 0, blockCount);
+      blackhole.consume(output);
+    }
+
+    @Benchmark
+    public void testSingleBlockDecryption(Blackhole blackhole) {
+      int blockByteSize = cryptoSystem.getBlockByteSize();
+      for (int i = 0; i < blockCount; ++i) {
+        cryptoSystem.decryptBlock(input, i * blockByteSize, output, i * blockByteSize);
+      }
+      blackhole.consume(output);
+    }
+
+    @Benchmark
+    public void testBatchDecryption(Blackhole blackhole) {
+      cryptoSystem.decryptBlocks(input, 0, output, 0, blockCount);
+      blackhole.consume(output);
+    }
+  }
+
+  // Reports ns/block of single-block calls
+  @State(Scope.Thread)
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Warmup(iterations = 3, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Fork(value = 1)
+  @Threads(1)
+  public static class BlockLatencyBenchmark {
+
+    private static final int BLOCK_COUNT = 1024;
+
+    @Param({"DES", "DEAL", "MAGENTA", "Serpent"})
+    private String cryptoSystemName;
+
+    private SymmetricCryptoSystem cryptoSystem;
+    private byte[] input;
+    private byte[] output;
+
+    @Setup
+    public void setup() {
+      Random random = new Random(42);
+      byte[] key = new byte[SymmetricCryptoContext.getCryptoSystemKeySizes(cryptoSystemName).getFirst()];
+      random.nextBytes(key);
+
+      cryptoSystem = SymmetricCryptoContext.getCryptoSystem(cryptoSystemName, key);
+      input = new byte[BLOCK_COUNT * cryptoSystem.getBlockByteSize()];
+      output = new byte[input.length];
+      random.nextBytes(input);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_COUNT)
+    public void testBlockEncryption(Blackhole blackhole) {
+      int blockByteSize = cryptoSystem.getBlockByteSize();
+      for (int i = 0; i < BLOCK_COUNT; ++i) {
+        cryptoSystem.encryptBlock(input, i * blockByteSize, output, i * blockByteSize);
+      }
+      blackhole.consume(output);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BLOCK_COUNT)
+    public void testBlockDecryption(Blackhole blackhole) {
+      int blockByteSize = cryptoSystem.getBlockByteSize();
+      for (int i = 0; i < BLOCK_COUNT; ++i) {
+        cryptoSystem.decryptBlock(input, i * blockByteSize, output, i * blockByteSize);
+      }
+      blackhole.consume(output);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.reminstant.cryptography.symmetric;
+
+import org.reminstant.cryptography.SymmetricCryptoSystem;
+import org.reminstant.cryptography.context.SymmetricCryptoContext;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SymmetricCryptoSystemTest {
+
+  @Test(dataProvider = "batchParams")
+  void testBatchEncryptionMatchesSingleBlocks(String cryptoSystemName, int offset, int blockCount) {
+    // SETUP
+    SymmetricCryptoSystem cryptoSystem = newCryptoSystem(cryptoSystemName);
+    int blockByteSize = cryptoSystem.getBlockByteSize();
+    byte[] input = newInput(offset + blockCount * blockByteSize);
+    byte[] expectedOutput = new byte[input.length];
+    for (int i = 0; i < blockCount; ++i) {
+      int blockOffset = offset + i * blockByteSize;
+      cryptoSystem.encryptBlock(input, blockOffset, expectedOutput, blockOffset);
+    }
+
+    // EXECUTION
+    byte[] output = new byte[input.length];
+    cryptoSystem.encryptBlocks(input, offset, output, offset, blockCount);
+    byte[] inPlaceOutput = Arrays.copyOf(input, input.length);
+    cryptoSystem.encryptBlocks(inPlaceOutput, offset, inPlaceOutput, offset, blockCount);
+
+    // ASSERTION
+    Assert.assertEquals(output, expectedOutput);
+    Assert.assertEquals(Arrays.copyOfRange(inPlaceOutput, offset, input.length),
+        Arrays.copyOfRange(expectedOutput, offset, input.length));
+  }
+
+  @Test(dataProvider = "batchParams")
+  void testBatchDecryptionMatchesSingleBlocks(String cryptoSystemName, int offset, int blockCount) {
+    // SETUP
+    SymmetricCryptoSystem cryptoSystem = newCryptoSystem(cryptoSystemName);
+    int blockByteSize = cryptoSystem.getBlockByteSize();
+    byte[] input = newInput(offset + blockCount * blockByteSize);
+    byte[] expectedOutput = new byte[input.length];
+    for (int i = 0; i < blockCount; ++i) {
+      int blockOffset = offset + i * blockByteSize;
+      cryptoSystem.decryptBlock(input, blockOffset, expectedOutput, blockOffset);
+    }
+
+    // EXECUTION
+    byte[] output = new byte[input.length];
+    cryptoSystem.decryptBlocks(input, offset, output, offset, blockCount);
+    byte[] inPlaceOutput = Arrays.copyOf(input, input.length);
+    cryptoSystem.decryptBlocks(inPlaceOutput, offset, inPlaceOutput, offset, blockCount);
+
+    // ASSERTION
+    Assert.assertEquals(output, expectedOutput);
+    Assert.assertEquals(Arrays.copyOfRange(inPlaceOutput, offset, input.length),
+        Arrays.copyOfRange(expectedOutput, offset, input.length));
+  }
+
+
+
+  @DataProvider(name = "batchParams")
+  Object[][] batchParamsProvider() {
+    String[] cryptoSystemNames = { "DES", "DEAL", "MAGENTA", "Serpent" };
+    int[] offsets = { 0, 3 };
+    int[] blockCounts = { 0, 1, 2, 3, 17 };
+    return Arrays.stream(cryptoSystemNames)
+        .flatMap(name -> Arrays.stream(offsets).boxed()
+            .flatMap(offset -> Arrays.stream(blockCounts)
+                .mapToObj(blockCount -> new Object[] { name, offset, blockCount })))
+        .toArray(Object[][]::new);
+  }
+
+  private SymmetricCryptoSystem newCryptoSystem(String cryptoSystemName) {
+    byte[] key = new byte[SymmetricCryptoContext.getCryptoSystemKeySizes(cryptoSystemName).getFirst()];
+    new Random(42).nextBytes(key);
+    return SymmetricCryptoContext.getCryptoSystem(cryptoSystemName, key);
+  }
+
+  private byte[] newInput(int length) {
+    byte[] input = new byte[length];
+    new Random(length).nextBytes(input);
+    return input;
+  }
+}